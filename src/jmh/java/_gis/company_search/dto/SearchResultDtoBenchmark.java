@@ -0,0 +1,81 @@
+package _gis.company_search.dto;
+
+import _gis.company_search.entity.SearchResultEntity;
+import _gis.company_search.entity.UserEntity;
+import _gis.company_search.service.SearchPayloadCodec;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SearchResultDto} from a loaded {@link SearchResultEntity}, the way the history endpoints
+ * build it: decode the stored items, then copy the entity and user fields. {@code payload} rows
+ * use the binary column, {@code json} rows the legacy {@code results_json} text.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class SearchResultDtoBenchmark {
+    @Param({"10", "50", "200"})
+    public int items;
+
+    @Param({"payload", "json"})
+    public String storage;
+
+    private SearchPayloadCodec codec;
+    private SearchResultEntity entity;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        ObjectMapper mapper = new ObjectMapper();
+        codec = new SearchPayloadCodec(mapper, true, 256);
+
+        List<GisItem> gisItems = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            gisItems.add(new GisItem("7000000102" + i, "Кофейня «Зерно» №" + i, "Тверская улица, " + (i + 1)));
+        }
+        GisSearchResponse response = new GisSearchResponse(gisItems);
+
+        UserEntity user = new UserEntity("Иван", "ivan@example.com", "h1$hash");
+        user.setId(42L);
+        entity = new SearchResultEntity(user, "Москва", "кофейня", null, items);
+        entity.setId(1L);
+        entity.setCreatedAt(LocalDateTime.of(2024, 5, 1, 12, 0));
+        if ("payload".equals(storage)) {
+            entity.setResultsPayload(codec.encode(response));
+        } else {
+            entity.setResultsJson(mapper.writeValueAsString(response));
+        }
+    }
+
+    @Benchmark
+    public SearchResultDto fromEntity() {
+        GisSearchResponse results = entity.getResultsPayload() != null
+                ? codec.decode(entity.getResultsPayload())
+                : codec.decodeJson(entity.getResultsJson());
+        return new SearchResultDto(entity, results);
+    }
+
+    @Benchmark
+    public SearchResultDto fieldsOnly() {
+        return new SearchResultDto(entity, null);
+    }
+}
@@ -0,0 +1,80 @@
+package _gis.company_search.logging;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Producer-side throughput of {@link AsyncLogger} with eight threads publishing into one ring.
+ * <p>
+ * The consumer writes to a discarding channel, so under {@code BLOCK} the score is bounded by how
+ * fast the consumer formats, while the dropping policies show the cost of the claim itself once
+ * the ring is past its watermark. {@code debugDisabled} is the level check alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@Threads(8)
+public class AsyncLoggerBenchmark {
+    @Param({"BLOCK", "DROP_DEBUG_FIRST", "SAMPLE"})
+    public OverflowPolicy overflowPolicy;
+
+    @Param({"16384"})
+    public int bufferSize;
+
+    private RingBufferLogBackend backend;
+    private AsyncLogger logger;
+
+    @State(Scope.Thread)
+    public static class Producer {
+        Long requestId;
+
+        @Setup
+        public void setUp(ThreadParams thread) {
+            requestId = (long) thread.getThreadIndex();
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        backend = new RingBufferLogBackend(bufferSize, overflowPolicy, 16, 256,
+                DiscardingChannel.INSTANCE, DiscardingChannel.INSTANCE);
+        logger = new AsyncLogger(backend, LogLevel.INFO);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        backend.close();
+    }
+
+    @Benchmark
+    public void infoPlain() {
+        logger.info("Запрос к 2GIS выполнен");
+    }
+
+    @Benchmark
+    public void infoTemplate(Producer producer) {
+        logger.info("Запрос {} к 2GIS выполнен, город: {}", producer.requestId, "Москва");
+    }
+
+    @Benchmark
+    public void debugDisabled(Producer producer) {
+        logger.debug("Найден элемент: {}", producer.requestId);
+    }
+}
@@ -0,0 +1,25 @@
+package _gis.company_search.logging;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/** Swallows whatever the log backend writes, so benchmarks don't measure the terminal. */
+public final class DiscardingChannel implements WritableByteChannel {
+    public static final DiscardingChannel INSTANCE = new DiscardingChannel();
+
+    @Override
+    public int write(ByteBuffer src) {
+        int remaining = src.remaining();
+        src.position(src.limit());
+        return remaining;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+    }
+}
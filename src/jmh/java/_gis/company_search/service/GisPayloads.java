@@ -0,0 +1,47 @@
+package _gis.company_search.service;
+
+/**
+ * Synthetic 2GIS {@code /items} responses shaped like real ones: besides the three fields the
+ * parser keeps, every item carries the point, rubrics, schedule and contacts that it has to skip.
+ */
+final class GisPayloads {
+    private GisPayloads() {
+    }
+
+    static String itemsResponse(int count) {
+        StringBuilder json = new StringBuilder(count * 900 + 256);
+        json.append("{\"meta\":{\"api_version\":\"3.0.18970\",\"code\":200,\"issue_date\":\"20240501\"},")
+                .append("\"result\":{\"items\":[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            long id = 70000001020000000L + i;
+            json.append("{\"id\":\"").append(id).append('_').append(Long.toHexString(id * 31)).append("\",")
+                    .append("\"name\":\"Кофейня «Зерно» №").append(i).append(", сеть кофеен\",")
+                    .append("\"address_name\":\"Тверская улица, ").append(i + 1).append(", 1 этаж\",")
+                    .append("\"type\":\"branch\",")
+                    .append("\"point\":{\"lat\":55.7").append(i % 10).append("5812,\"lon\":37.6").append(i % 10).append("1742},")
+                    .append("\"org\":{\"id\":\"").append(id / 1000).append("\",\"name\":\"Зерно\",\"branch_count\":")
+                    .append(i % 40 + 1).append("},")
+                    .append("\"rubrics\":[{\"id\":\"162\",\"name\":\"Кофейни\",\"kind\":\"primary\"},")
+                    .append("{\"id\":\"164\",\"name\":\"Кафе\",\"kind\":\"additional\"}],")
+                    .append("\"schedule\":{");
+            String[] days = {"Mon", "Tue", "Wed", "Thu", "Fri", "Sat", "Sun"};
+            for (int d = 0; d < days.length; d++) {
+                if (d > 0) {
+                    json.append(',');
+                }
+                json.append('"').append(days[d]).append("\":{\"working_hours\":[{\"from\":\"08:00\",\"to\":\"22:00\"}]}");
+            }
+            json.append("},\"contact_groups\":[{\"contacts\":[")
+                    .append("{\"type\":\"phone\",\"value\":\"+7495").append(1000000 + i).append("\",\"text\":\"+7 (495) ")
+                    .append(100 + i % 900).append("-00-00\"},")
+                    .append("{\"type\":\"website\",\"value\":\"https://zerno.example/").append(i).append("\"}]}],")
+                    .append("\"reviews\":{\"general_rating\":4.").append(i % 10).append(",\"general_review_count\":")
+                    .append(i * 7).append("}}");
+        }
+        json.append("],\"total\":").append(count * 12).append("}}");
+        return json.toString();
+    }
+}
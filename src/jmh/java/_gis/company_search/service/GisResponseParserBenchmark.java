@@ -0,0 +1,84 @@
+package _gis.company_search.service;
+
+import _gis.company_search.dto.GisSearchResponse;
+import _gis.company_search.logging.AsyncLogger;
+import _gis.company_search.logging.DiscardingChannel;
+import _gis.company_search.logging.LogLevel;
+import _gis.company_search.logging.OverflowPolicy;
+import _gis.company_search.logging.RingBufferLogBackend;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 2GIS {@code /items} body to {@link GisSearchResponse}, in streaming and tree mode. The body is
+ * split into 8 KiB buffers, roughly what reactor-netty hands over per read.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class GisResponseParserBenchmark {
+    private static final int CHUNK_SIZE = 8 * 1024;
+
+    @Param({"10", "50", "200"})
+    public int items;
+
+    @Param({"true", "false"})
+    public boolean streaming;
+
+    private RingBufferLogBackend backend;
+    private GisResponseParser parser;
+    private byte[] body;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        backend = new RingBufferLogBackend(1024, OverflowPolicy.DROP_DEBUG_FIRST, 1, 64,
+                DiscardingChannel.INSTANCE, DiscardingChannel.INSTANCE);
+        parser = new GisResponseParser(new ObjectMapper(), new AsyncLogger(backend, LogLevel.INFO),
+                new PipelineMetrics(new SimpleMeterRegistry()), streaming);
+        body = GisPayloads.itemsResponse(items).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        backend.close();
+    }
+
+    @Benchmark
+    public GisSearchResponse parse() {
+        return parser.parse(chunks()).block();
+    }
+
+    private Flux<DataBuffer> chunks() {
+        List<DataBuffer> buffers = new ArrayList<>(body.length / CHUNK_SIZE + 1);
+        for (int offset = 0; offset < body.length; offset += CHUNK_SIZE) {
+            int length = Math.min(CHUNK_SIZE, body.length - offset);
+            buffers.add(DefaultDataBufferFactory.sharedInstance.wrap(ByteBuffer.wrap(body, offset, length).slice()));
+        }
+        return Flux.fromIterable(buffers);
+    }
+}
@@ -0,0 +1,68 @@
+package _gis.company_search.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Password hashing on the register and login paths. {@code matchesLegacy} covers users whose hash
+ * predates the {@code h1$} format until their next login rehashes it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@Threads(4)
+public class HashServiceBenchmark {
+    private static final String HASH_KEY = "benchmark-hash-key";
+
+    @Param({"12", "64"})
+    public int passwordLength;
+
+    private HashService hashService;
+    private String password;
+    private String stored;
+    private String legacyStored;
+
+    @Setup
+    public void setUp() throws Exception {
+        hashService = new HashService(HASH_KEY);
+        password = "п".repeat(passwordLength / 4) + "x".repeat(passwordLength - passwordLength / 4);
+        stored = hashService.hashString(password);
+
+        byte[] digest = MessageDigest.getInstance("SHA-256")
+                .digest((password + HASH_KEY).getBytes(StandardCharsets.UTF_8));
+        legacyStored = Base64.getEncoder().encodeToString(digest);
+    }
+
+    @Benchmark
+    public String hashString() {
+        return hashService.hashString(password);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return hashService.matches(password, stored);
+    }
+
+    @Benchmark
+    public boolean matchesLegacy() {
+        return hashService.matches(password, legacyStored);
+    }
+}
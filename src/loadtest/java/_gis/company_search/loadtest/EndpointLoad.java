@@ -0,0 +1,120 @@
+package _gis.company_search.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+
+/**
+ * One endpoint under load: how to issue a request, at what rate, and what came back.
+ * <p>
+ * Latency is measured from the moment the request was <em>scheduled</em> to start, not from when
+ * it was actually sent, so a generator that falls behind still charges the delay to the server
+ * (no coordinated omission). Values are recorded in microseconds.
+ */
+final class EndpointLoad {
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final String name;
+    private final double ratePerSecond;
+    private final LongFunction<Mono<Integer>> request;
+
+    private final Histogram latency = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+
+    /**
+     * @param request issues request number {@code n} and emits the HTTP status code
+     */
+    EndpointLoad(String name, double ratePerSecond, LongFunction<Mono<Integer>> request) {
+        this.name = name;
+        this.ratePerSecond = ratePerSecond;
+        this.request = request;
+    }
+
+    String name() {
+        return name;
+    }
+
+    double ratePerSecond() {
+        return ratePerSecond;
+    }
+
+    Histogram latency() {
+        return latency;
+    }
+
+    Mono<Integer> request(long n) {
+        return request.apply(n);
+    }
+
+    void recordSent() {
+        sent.increment();
+    }
+
+    void recordDropped() {
+        dropped.increment();
+        recordFailure("dropped");
+    }
+
+    void recordStatus(int status, long latencyNanos) {
+        latency.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+        if (status >= 200 && status < 300) {
+            succeeded.increment();
+        } else {
+            recordFailure(String.valueOf(status));
+        }
+    }
+
+    void recordError(Throwable error, long latencyNanos) {
+        latency.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+        recordFailure(error.getClass().getSimpleName());
+    }
+
+    void recordTimedOut(long count) {
+        for (long i = 0; i < count; i++) {
+            recordFailure("unfinished");
+        }
+    }
+
+    long sent() {
+        return sent.sum();
+    }
+
+    long succeeded() {
+        return succeeded.sum();
+    }
+
+    long failed() {
+        return failed.sum();
+    }
+
+    long dropped() {
+        return dropped.sum();
+    }
+
+    double errorRate() {
+        long total = sent.sum() + dropped.sum();
+        return total == 0 ? 0 : (double) failed.sum() / total;
+    }
+
+    Map<String, Long> failures() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        failures.forEach((reason, count) -> result.put(reason, count.sum()));
+        return result;
+    }
+
+    private void recordFailure(String reason) {
+        failed.increment();
+        failures.computeIfAbsent(reason, key -> new LongAdder()).increment();
+    }
+}
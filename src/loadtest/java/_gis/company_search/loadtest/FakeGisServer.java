@@ -0,0 +1,114 @@
+package _gis.company_search.loadtest;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local stand-in for the 2GIS catalog API.
+ * <p>
+ * Every {@code /items} request is answered after a log-normal delay described by its median and
+ * p99, the shape real upstream latency usually has. A configurable share of requests fails with
+ * 500 or 429 instead. The body is a realistic {@code /items} response with {@code items} entries.
+ */
+final class FakeGisServer implements AutoCloseable {
+    private static final double Z_99 = 2.326;
+
+    private final MockWebServer server = new MockWebServer();
+    private final double mu;
+    private final double sigma;
+    private final double errorRate;
+    private final double throttleRate;
+    private final String body;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+
+    FakeGisServer(double medianMillis, double p99Millis, double errorRate, double throttleRate, int items) {
+        this.mu = Math.log(Math.max(0.001, medianMillis));
+        this.sigma = Math.max(0, Math.log(Math.max(p99Millis, medianMillis) / Math.max(0.001, medianMillis)) / Z_99);
+        this.errorRate = errorRate;
+        this.throttleRate = throttleRate;
+        this.body = itemsResponse(items);
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return respond();
+            }
+        });
+    }
+
+    void start() throws IOException {
+        server.start();
+    }
+
+    String baseUrl() {
+        return server.url("/").toString().replaceAll("/$", "");
+    }
+
+    long requests() {
+        return requests.sum();
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+
+    long throttled() {
+        return throttled.sum();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.shutdown();
+    }
+
+    private MockResponse respond() {
+        requests.increment();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delayMicros = (long) (Math.exp(mu + sigma * random.nextGaussian()) * 1000);
+
+        double roll = random.nextDouble();
+        MockResponse response;
+        if (roll < errorRate) {
+            errors.increment();
+            response = new MockResponse().setResponseCode(500);
+        } else if (roll < errorRate + throttleRate) {
+            throttled.increment();
+            response = new MockResponse().setResponseCode(429);
+        } else {
+            response = new MockResponse()
+                    .setHeader("Content-Type", "application/json")
+                    .setBody(body);
+        }
+        return response.setHeadersDelay(delayMicros, TimeUnit.MICROSECONDS);
+    }
+
+    private static String itemsResponse(int count) {
+        StringBuilder json = new StringBuilder(count * 600 + 128);
+        json.append("{\"meta\":{\"api_version\":\"3.0.18970\",\"code\":200},\"result\":{\"items\":[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            long id = 70000001020000000L + i;
+            json.append("{\"id\":\"").append(id).append("\",")
+                    .append("\"name\":\"Кофейня «Зерно» №").append(i).append("\",")
+                    .append("\"address_name\":\"Тверская улица, ").append(i + 1).append("\",")
+                    .append("\"type\":\"branch\",")
+                    .append("\"point\":{\"lat\":55.75812,\"lon\":37.61742},")
+                    .append("\"rubrics\":[{\"id\":\"162\",\"name\":\"Кофейни\",\"kind\":\"primary\"}],")
+                    .append("\"schedule\":{\"Mon\":{\"working_hours\":[{\"from\":\"08:00\",\"to\":\"22:00\"}]}},")
+                    .append("\"reviews\":{\"general_rating\":4.6,\"general_review_count\":").append(i * 7).append("}}");
+        }
+        json.append("],\"total\":").append(count).append("}}");
+        return json.toString();
+    }
+}
@@ -0,0 +1,94 @@
+package _gis.company_search.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the results of a run: one HdrHistogram percentile distribution per endpoint
+ * ({@code <endpoint>.hgrm}, milliseconds, loadable in HdrHistogram's plotter) and a
+ * {@code summary.json} with throughput, error rate and the usual percentiles.
+ */
+final class LoadReport {
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private LoadReport() {
+    }
+
+    static Map<String, Object> write(Path directory, Duration duration, List<EndpointLoad> loads,
+                                     Map<String, Object> setup) throws IOException {
+        Files.createDirectories(directory);
+
+        List<Map<String, Object>> endpoints = new ArrayList<>();
+        for (EndpointLoad load : loads) {
+            try (PrintStream out = new PrintStream(
+                    Files.newOutputStream(directory.resolve(load.name() + ".hgrm")), false, "UTF-8")) {
+                load.latency().outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+            endpoints.add(summary(load, duration));
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("setup", setup);
+        report.put("endpoints", endpoints);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(directory.resolve("summary.json").toFile(), report);
+        return report;
+    }
+
+    static String table(Duration duration, List<EndpointLoad> loads) {
+        StringBuilder table = new StringBuilder(String.format("%-10s %8s %8s %8s %8s %9s %9s %9s %9s %9s%n",
+                "endpoint", "rate", "ok/s", "sent", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (EndpointLoad load : loads) {
+            Histogram latency = load.latency();
+            table.append(String.format("%-10s %8.1f %8.1f %8d %8d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    load.name(), load.ratePerSecond(), throughput(load, duration), load.sent(), load.failed(),
+                    millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(90)),
+                    millis(latency.getValueAtPercentile(99)), millis(latency.getValueAtPercentile(99.9)),
+                    millis(latency.getMaxValue())));
+        }
+        return table.toString();
+    }
+
+    private static Map<String, Object> summary(EndpointLoad load, Duration duration) {
+        Histogram latency = load.latency();
+        Map<String, Object> latencyMillis = new LinkedHashMap<>();
+        latencyMillis.put("p50", millis(latency.getValueAtPercentile(50)));
+        latencyMillis.put("p90", millis(latency.getValueAtPercentile(90)));
+        latencyMillis.put("p99", millis(latency.getValueAtPercentile(99)));
+        latencyMillis.put("p999", millis(latency.getValueAtPercentile(99.9)));
+        latencyMillis.put("max", millis(latency.getMaxValue()));
+        latencyMillis.put("mean", latency.getMean() / MICROS_PER_MILLI);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("endpoint", load.name());
+        summary.put("targetRate", load.ratePerSecond());
+        summary.put("throughput", throughput(load, duration));
+        summary.put("sent", load.sent());
+        summary.put("succeeded", load.succeeded());
+        summary.put("failed", load.failed());
+        summary.put("dropped", load.dropped());
+        summary.put("errorRate", load.errorRate());
+        summary.put("failures", load.failures());
+        summary.put("latencyMillis", latencyMillis);
+        return summary;
+    }
+
+    private static double throughput(EndpointLoad load, Duration duration) {
+        return load.succeeded() / (duration.toMillis() / 1000.0);
+    }
+
+    private static double millis(long micros) {
+        return micros / MICROS_PER_MILLI;
+    }
+}
@@ -0,0 +1,108 @@
+package _gis.company_search.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load: every endpoint gets requests at its fixed arrival rate whether or not earlier
+ * ones have finished, the way independent clients behave.
+ * <p>
+ * One pacing thread per endpoint fires request {@code n} at {@code start + n / rate} and never
+ * waits for responses. Requests scheduled during the warm-up are sent but not recorded. If an
+ * endpoint already has {@code maxInFlight} requests outstanding, the next one is counted as
+ * dropped instead of piling up in the client.
+ */
+final class OpenLoadGenerator {
+    private final Duration warmup;
+    private final Duration duration;
+    private final Duration requestTimeout;
+    private final int maxInFlight;
+
+    OpenLoadGenerator(Duration warmup, Duration duration, Duration requestTimeout, int maxInFlight) {
+        this.warmup = warmup;
+        this.duration = duration;
+        this.requestTimeout = requestTimeout;
+        this.maxInFlight = maxInFlight;
+    }
+
+    void run(List<EndpointLoad> loads) throws InterruptedException {
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+
+        List<Thread> pacers = new ArrayList<>();
+        List<AtomicInteger> measuredInFlight = new ArrayList<>();
+        for (EndpointLoad load : loads) {
+            AtomicInteger inFlight = new AtomicInteger();
+            AtomicInteger measured = new AtomicInteger();
+            measuredInFlight.add(measured);
+            Thread pacer = new Thread(() -> pace(load, start, measureFrom, end, inFlight, measured),
+                    "load-" + load.name());
+            pacer.setDaemon(true);
+            pacers.add(pacer);
+            pacer.start();
+        }
+        for (Thread pacer : pacers) {
+            pacer.join();
+        }
+
+        long drainDeadline = System.nanoTime() + requestTimeout.toNanos() + TimeUnit.SECONDS.toNanos(1);
+        while (System.nanoTime() < drainDeadline && measuredInFlight.stream().anyMatch(count -> count.get() > 0)) {
+            Thread.sleep(10);
+        }
+        for (int i = 0; i < loads.size(); i++) {
+            loads.get(i).recordTimedOut(measuredInFlight.get(i).get());
+        }
+    }
+
+    private void pace(EndpointLoad load, long start, long measureFrom, long end,
+                      AtomicInteger inFlight, AtomicInteger measuredInFlight) {
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / load.ratePerSecond();
+        for (long n = 0; ; n++) {
+            long intended = start + (long) (n * intervalNanos);
+            if (intended >= end) {
+                return;
+            }
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            boolean measured = intended >= measureFrom;
+            if (inFlight.get() >= maxInFlight) {
+                if (measured) {
+                    load.recordDropped();
+                }
+                continue;
+            }
+            inFlight.incrementAndGet();
+            if (measured) {
+                load.recordSent();
+                measuredInFlight.incrementAndGet();
+            }
+            load.request(n)
+                    .timeout(requestTimeout)
+                    .doFinally(signal -> {
+                        inFlight.decrementAndGet();
+                        if (measured) {
+                            measuredInFlight.decrementAndGet();
+                        }
+                    })
+                    .subscribe(
+                            status -> {
+                                if (measured) {
+                                    load.recordStatus(status, System.nanoTime() - intended);
+                                }
+                            },
+                            error -> {
+                                if (measured) {
+                                    load.recordError(error, System.nanoTime() - intended);
+                                }
+                            });
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package _gis.company_search.loadtest;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end load run of the whole app against {@link FakeGisServer}: search, history and login
+ * at fixed arrival rates. Runs only with {@code mvn verify -Ploadtest}; everything is local, so it
+ * works offline.
+ * <p>
+ * Settings are system properties, e.g. {@code -Dloadtest.search.rate=50 -Dloadtest.duration=PT2M}:
+ * <ul>
+ *     <li>{@code loadtest.warmup} / {@code loadtest.duration}: unrecorded warm-up and measured time</li>
+ *     <li>{@code loadtest.search.rate}, {@code loadtest.history.rate}, {@code loadtest.login.rate}:
+ *     requests per second</li>
+ *     <li>{@code loadtest.search.distinct-queries}: size of the query pool, which sets the cache hit rate</li>
+ *     <li>{@code loadtest.users}: accounts the login traffic rotates through</li>
+ *     <li>{@code loadtest.gis.latency-median} / {@code loadtest.gis.latency-p99} (ms),
+ *     {@code loadtest.gis.error-rate}, {@code loadtest.gis.throttle-rate}, {@code loadtest.gis.items}:
+ *     behaviour of the fake 2GIS</li>
+ *     <li>{@code loadtest.max-in-flight}, {@code loadtest.request-timeout}: client-side limits</li>
+ *     <li>{@code loadtest.max-error-rate}: the run fails if any endpoint exceeds it</li>
+ *     <li>{@code loadtest.report-dir}: where the histograms and {@code summary.json} go</li>
+ * </ul>
+ * App properties ({@code dgis.limiter.rate}, {@code search.blocking.pool-size}, ...) can be set the
+ * same way.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+class SearchLoadTest {
+    private static final String PASSWORD = "load-test-password";
+
+    private static FakeGisServer gis;
+
+    @LocalServerPort
+    private int port;
+
+    @BeforeAll
+    static void startGis() throws IOException {
+        gis = new FakeGisServer(
+                doubleSetting("loadtest.gis.latency-median", 40),
+                doubleSetting("loadtest.gis.latency-p99", 250),
+                doubleSetting("loadtest.gis.error-rate", 0.01),
+                doubleSetting("loadtest.gis.throttle-rate", 0),
+                intSetting("loadtest.gis.items", 20));
+        gis.start();
+    }
+
+    @AfterAll
+    static void stopGis() throws IOException {
+        gis.close();
+    }
+
+    @DynamicPropertySource
+    static void gisUrl(DynamicPropertyRegistry registry) {
+        registry.add("dgis.base.api.url", () -> gis.baseUrl());
+    }
+
+    @Test
+    void searchHistoryAndLoginUnderOpenLoad() throws Exception {
+        Duration warmup = durationSetting("loadtest.warmup", "PT5S");
+        Duration duration = durationSetting("loadtest.duration", "PT30S");
+        Duration requestTimeout = durationSetting("loadtest.request-timeout", "PT15S");
+        int maxInFlight = intSetting("loadtest.max-in-flight", 1000);
+        int users = intSetting("loadtest.users", 20);
+        int distinctQueries = intSetting("loadtest.search.distinct-queries", 200);
+
+        ConnectionProvider connections = ConnectionProvider.builder("load-test")
+                .maxConnections(maxInFlight * 3)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        try {
+            WebClient client = WebClient.builder()
+                    .baseUrl("http://localhost:" + port)
+                    .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                    .build();
+
+            for (int i = 0; i < users; i++) {
+                client.post().uri("/api/users/")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(Map.of("name", "user" + i, "email", email(i), "password", PASSWORD))
+                        .retrieve().toBodilessEntity().block();
+            }
+            String bearer = "Bearer " + client.post().uri("/api/users/login/")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(Map.of("email", email(0), "password", PASSWORD))
+                    .retrieve().bodyToMono(Map.class)
+                    .map(user -> (String) user.get("token"))
+                    .block();
+
+            List<EndpointLoad> loads = List.of(
+                    new EndpointLoad("search", doubleSetting("loadtest.search.rate", 20), n -> client.get()
+                            .uri(uri -> uri.path("/api/search")
+                                    .queryParam("city", "Москва")
+                                    .queryParam("text", "кафе " + n % distinctQueries)
+                                    .build())
+                            .header(HttpHeaders.AUTHORIZATION, bearer)
+                            .exchangeToMono(SearchLoadTest::drain)),
+                    new EndpointLoad("history", doubleSetting("loadtest.history.rate", 20), n -> client.get()
+                            .uri("/api/search/history?limit=20")
+                            .header(HttpHeaders.AUTHORIZATION, bearer)
+                            .exchangeToMono(SearchLoadTest::drain)),
+                    new EndpointLoad("login", doubleSetting("loadtest.login.rate", 5), n -> client.post()
+                            .uri("/api/users/login/")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .bodyValue(Map.of("email", email((int) (n % users)), "password", PASSWORD))
+                            .exchangeToMono(SearchLoadTest::drain))
+            );
+
+            new OpenLoadGenerator(warmup, duration, requestTimeout, maxInFlight).run(loads);
+
+            Map<String, Object> setup = new LinkedHashMap<>();
+            setup.put("warmupSeconds", warmup.toSeconds());
+            setup.put("durationSeconds", duration.toSeconds());
+            setup.put("gisRequests", gis.requests());
+            setup.put("gisInjectedErrors", gis.errors());
+            setup.put("gisInjectedThrottles", gis.throttled());
+            Path reportDir = Path.of(System.getProperty("loadtest.report-dir", "target/load-test"));
+            LoadReport.write(reportDir, duration, loads, setup);
+            System.out.println(LoadReport.table(duration, loads));
+            System.out.println("Report: " + reportDir.toAbsolutePath());
+
+            double maxErrorRate = doubleSetting("loadtest.max-error-rate", 0.01);
+            for (EndpointLoad load : loads) {
+                assertThat(load.sent()).as("%s requests sent", load.name()).isPositive();
+                assertThat(load.errorRate()).as("%s error rate, failures: %s", load.name(), load.failures())
+                        .isLessThanOrEqualTo(maxErrorRate);
+            }
+        } finally {
+            connections.disposeLater().block();
+        }
+    }
+
+    private static Mono<Integer> drain(ClientResponse response) {
+        return response.releaseBody().thenReturn(response.statusCode().value());
+    }
+
+    private static String email(int i) {
+        return "load" + i + "@example.com";
+    }
+
+    private static double doubleSetting(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        return value != null ? Double.parseDouble(value) : defaultValue;
+    }
+
+    private static int intSetting(String name, int defaultValue) {
+        String value = System.getProperty(name);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+
+    private static Duration durationSetting(String name, String defaultValue) {
+        return Duration.parse(System.getProperty(name, defaultValue));
+    }
+}
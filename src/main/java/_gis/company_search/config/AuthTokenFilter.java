@@ -0,0 +1,49 @@
+package _gis.company_search.config;
+
+import _gis.company_search.service.TokenService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Resolves the {@code Authorization: Bearer} token on {@code /api/search} routes to the caller's
+ * user id and stores it as the {@link #USER_ID} request attribute. Requests without a valid token
+ * get 401 before they reach a controller.
+ */
+@Component
+public class AuthTokenFilter implements WebFilter {
+    public static final String USER_ID = "authenticatedUserId";
+
+    private static final String PROTECTED_PREFIX = "/api/search";
+    private static final String BEARER = "Bearer ";
+
+    private final TokenService tokenService;
+
+    public AuthTokenFilter(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!exchange.getRequest().getPath().value().startsWith(PROTECTED_PREFIX)) {
+            return chain.filter(exchange);
+        }
+
+        String header = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        Long userId = header != null && header.startsWith(BEARER)
+                ? tokenService.verify(header.substring(BEARER.length()).trim())
+                : null;
+        if (userId == null) {
+            exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+            exchange.getResponse().getHeaders().set(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+            return exchange.getResponse().setComplete();
+        }
+
+        exchange.getAttributes().put(USER_ID, userId);
+        return chain.filter(exchange);
+    }
+}
@@ -0,0 +1,177 @@
+package _gis.company_search.config;
+
+import _gis.company_search.dto.BlockingSchedulerStats;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The one place blocking work (JPA/JDBC) runs, so it never lands on a Netty event loop.
+ * <p>
+ * A task holding a JDBC call also holds a pooled connection, so at most {@code pool-size} tasks
+ * run at once, matching the Hikari pool by default; more would only queue inside Hikari. In
+ * virtual-thread mode every task gets its own virtual thread and the ones over the limit park on a
+ * semaphore, which costs a few hundred bytes instead of a platform thread. In platform mode a
+ * fixed pool of that size does the same job. Either way at most {@code queue-capacity} tasks may
+ * wait; further tasks are rejected instead of piling up.
+ */
+@Component
+public class BlockingScheduler {
+    private static final String THREAD_PREFIX = "search-blocking-";
+
+    private final boolean virtualThreads;
+    private final int poolSize;
+    private final ExecutorService executor;
+    private final Scheduler scheduler;
+    private final AtomicLong rejected = new AtomicLong();
+
+    public BlockingScheduler(
+            @Value("${search.blocking.virtual-threads:true}") boolean virtualThreads,
+            @Value("${search.blocking.pool-size:${spring.datasource.hikari.maximum-pool-size:10}}") int poolSize,
+            @Value("${search.blocking.queue-capacity:1000}") int queueCapacity
+    ) {
+        this.virtualThreads = virtualThreads;
+        this.poolSize = poolSize;
+        this.executor = virtualThreads
+                ? new VirtualThreadExecutor(poolSize, queueCapacity)
+                : platformExecutor(poolSize, queueCapacity);
+        this.scheduler = Schedulers.fromExecutorService(executor, "search-blocking");
+    }
+
+    public Scheduler scheduler() {
+        return scheduler;
+    }
+
+    public BlockingSchedulerStats getStats() {
+        if (executor instanceof VirtualThreadExecutor virtual) {
+            return new BlockingSchedulerStats(
+                    true,
+                    poolSize,
+                    poolSize - virtual.permits.availablePermits(),
+                    virtual.permits.getQueueLength(),
+                    virtual.completed.get(),
+                    rejected.get()
+            );
+        }
+        ThreadPoolExecutor pool = (ThreadPoolExecutor) executor;
+        return new BlockingSchedulerStats(
+                false,
+                poolSize,
+                pool.getActiveCount(),
+                pool.getQueue().size(),
+                pool.getCompletedTaskCount(),
+                rejected.get()
+        );
+    }
+
+    @PreDestroy
+    public void close() {
+        scheduler.dispose();
+        executor.shutdown();
+    }
+
+    private ThreadPoolExecutor platformExecutor(int poolSize, int queueCapacity) {
+        AtomicInteger threads = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, THREAD_PREFIX + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                0,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                threadFactory,
+                (task, pool) -> {
+                    rejected.incrementAndGet();
+                    throw new RejectedExecutionException("Blocking task queue is full");
+                });
+    }
+
+    private final class VirtualThreadExecutor extends AbstractExecutorService {
+        private final ExecutorService threads = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name(THREAD_PREFIX, 1).factory());
+        private final Semaphore permits;
+        private final int maxTasks;
+        private final AtomicInteger tasks = new AtomicInteger();
+        private final AtomicLong completed = new AtomicLong();
+
+        VirtualThreadExecutor(int poolSize, int queueCapacity) {
+            this.permits = new Semaphore(poolSize, true);
+            this.maxTasks = poolSize + queueCapacity;
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            if (tasks.incrementAndGet() > maxTasks) {
+                tasks.decrementAndGet();
+                rejected.incrementAndGet();
+                throw new RejectedExecutionException("Blocking task queue is full");
+            }
+            try {
+                threads.execute(() -> run(task));
+            } catch (RejectedExecutionException e) {
+                tasks.decrementAndGet();
+                throw e;
+            }
+        }
+
+        private void run(Runnable task) {
+            try {
+                permits.acquire();
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                    completed.incrementAndGet();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                tasks.decrementAndGet();
+            }
+        }
+
+        @Override
+        public void shutdown() {
+            threads.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return threads.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return threads.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return threads.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return threads.awaitTermination(timeout, unit);
+        }
+    }
+}
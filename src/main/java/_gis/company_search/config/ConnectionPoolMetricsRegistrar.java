@@ -0,0 +1,39 @@
+package _gis.company_search.config;
+
+import _gis.company_search.dto.ConnectionPoolStats;
+import org.springframework.stereotype.Component;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.SocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class ConnectionPoolMetricsRegistrar implements ConnectionProvider.MeterRegistrar {
+    private final Map<String, ConnectionPoolMetrics> pools = new ConcurrentHashMap<>();
+
+    @Override
+    public void registerMetrics(String poolName, String id, SocketAddress remoteAddress, ConnectionPoolMetrics metrics) {
+        pools.put(id, metrics);
+    }
+
+    @Override
+    public void deRegisterMetrics(String poolName, String id, SocketAddress remoteAddress) {
+        pools.remove(id);
+    }
+
+    public ConnectionPoolStats getStats() {
+        int active = 0;
+        int idle = 0;
+        int pending = 0;
+        int allocated = 0;
+        for (ConnectionPoolMetrics metrics : pools.values()) {
+            active += metrics.acquiredSize();
+            idle += metrics.idleSize();
+            pending += metrics.pendingAcquireSize();
+            allocated += metrics.allocatedSize();
+        }
+        return new ConnectionPoolStats(pools.size(), active, idle, pending, allocated);
+    }
+}
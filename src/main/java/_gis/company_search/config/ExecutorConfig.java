@@ -1,28 +1,31 @@
 package _gis.company_search.config;
 
+import _gis.company_search.logging.OverflowPolicy;
+import _gis.company_search.logging.RingBufferLogBackend;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 @Configuration
 public class ExecutorConfig {
-    @Bean(destroyMethod = "shutdown")
-    public ExecutorService searchExecutorService() {
-        return Executors.newFixedThreadPool(10);
+    @Bean(destroyMethod = "close")
+    public RingBufferLogBackend logBackend(
+            @Value("${async-logger.buffer-size:8192}") int bufferSize,
+            @Value("${async-logger.overflow-policy:DROP_DEBUG_FIRST}") OverflowPolicy overflowPolicy,
+            @Value("${async-logger.sample-rate:10}") int sampleRate,
+            @Value("${async-logger.batch-size:256}") int batchSize) {
+        return new RingBufferLogBackend(bufferSize, overflowPolicy, sampleRate, batchSize);
     }
 
-    @Bean(destroyMethod = "shutdown")
-    public ExecutorService loggingExecutorService() {
-        return Executors.newSingleThreadExecutor(r -> {
-            Thread thread = new Thread(r);
-            thread.setName("async-logger");
-            thread.setDaemon(true);
-            return thread;
-        });
+    @Bean(destroyMethod = "dispose")
+    public Scheduler authScheduler(
+            @Value("${auth.scheduler.threads:4}") int threads,
+            @Value("${auth.scheduler.queue-capacity:200}") int queueCapacity) {
+        return Schedulers.newBoundedElastic(threads, queueCapacity, "auth", 60, true);
     }
 
     @Bean
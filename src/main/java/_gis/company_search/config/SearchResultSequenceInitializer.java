@@ -0,0 +1,30 @@
+package _gis.company_search.config;
+
+import _gis.company_search.entity.SearchResultEntity;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves {@code search_results_seq} past the rows that were inserted while the id column was an
+ * identity, so sequence-allocated ids never collide with them. Restarting one allocation block
+ * above the current maximum is safe for the pooled optimizer on a single instance.
+ * <p>
+ * Runs once all singletons exist but before the web server starts, so no request or write-behind
+ * flush can draw ids from the old sequence position.
+ */
+@Component
+public class SearchResultSequenceInitializer implements SmartInitializingSingleton {
+    private final JdbcTemplate jdbcTemplate;
+
+    public SearchResultSequenceInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM search_results", Long.class);
+        long restartWith = (maxId == null ? 0 : maxId) + SearchResultEntity.ID_ALLOCATION_SIZE + 1;
+        jdbcTemplate.execute("ALTER SEQUENCE " + SearchResultEntity.ID_SEQUENCE + " RESTART WITH " + restartWith);
+    }
+}
@@ -1,16 +1,70 @@
 package _gis.company_search.config;
 
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class WebClientConfig {
 
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider dgConnectionProvider(
+            @Value("${dgis.http.max-connections:200}") int maxConnections,
+            @Value("${dgis.http.pending-acquire-max-count:1000}") int pendingAcquireMaxCount,
+            @Value("${dgis.http.pending-acquire-timeout:PT5S}") Duration pendingAcquireTimeout,
+            @Value("${dgis.http.max-idle-time:PT30S}") Duration maxIdleTime,
+            @Value("${dgis.http.max-life-time:PT5M}") Duration maxLifeTime,
+            @Value("${dgis.http.evict-interval:PT15S}") Duration evictInterval,
+            ConnectionPoolMetricsRegistrar metricsRegistrar) {
+        return ConnectionProvider.builder("dgis")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .evictInBackground(evictInterval)
+                .metrics(true, () -> metricsRegistrar)
+                .build();
+    }
+
     @Bean
-    public WebClient dgClient() {
+    public WebClient dgClient(
+            ConnectionProvider dgConnectionProvider,
+            @Value("${dgis.base.api.url:https://catalog.api.2gis.com/3.0}") String baseUrl,
+            @Value("${dgis.http.connect-timeout:PT2S}") Duration connectTimeout,
+            @Value("${dgis.http.read-timeout:PT5S}") Duration readTimeout,
+            @Value("${dgis.http.response-timeout:PT5S}") Duration responseTimeout,
+            @Value("${dgis.http.compression:true}") boolean compression,
+            @Value("${dgis.http.http2:true}") boolean http2) {
+        HttpClient httpClient = HttpClient.create(dgConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .keepAlive(true)
+                .responseTimeout(responseTimeout)
+                .compress(compression)
+                .doOnConnected(connection -> connection.addHandlerLast(
+                        new ReadTimeoutHandler(readTimeout.toMillis(), TimeUnit.MILLISECONDS)));
+
+        // HTTP/2 is negotiated through ALPN, so it is only offered over TLS; plain http stays on HTTP/1.1.
+        if (http2 && baseUrl.startsWith("https")) {
+            httpClient = httpClient
+                    .protocol(HttpProtocol.H2, HttpProtocol.HTTP11)
+                    .secure();
+        }
+
         return WebClient.builder()
-                .baseUrl("https://catalog.api.2gis.com/3.0")
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .build();
     }
-}
\ No newline at end of file
+}
@@ -1,11 +1,19 @@
 package _gis.company_search.controller;
 
+import _gis.company_search.config.AuthTokenFilter;
+import _gis.company_search.dto.BatchSearchRequest;
+import _gis.company_search.dto.BatchSearchResponse;
 import _gis.company_search.dto.GisSearchResponse;
+import _gis.company_search.dto.HistorySearchResult;
+import _gis.company_search.dto.SearchHistoryPage;
 import _gis.company_search.dto.SearchResultDto;
+import _gis.company_search.dto.SearchResultSummaryDto;
 import _gis.company_search.logging.AsyncLogger;
 import _gis.company_search.service.SearchResultService;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import _gis.company_search.service.SearchService;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
@@ -29,33 +37,76 @@ public class SearchController {
 
     @GetMapping
     public Mono<GisSearchResponse> search(
-            @RequestParam Long userId,
+            @RequestAttribute(AuthTokenFilter.USER_ID) Long userId,
             @RequestParam String city,
             @RequestParam String text) {
-        logger.info("Получен запрос на поиск. Город: " + city + ", текст: " + text +
-                " в потоке: " + Thread.currentThread().getName());
+        logger.info("Получен запрос на поиск. Город: {}, текст: {}", city, text);
         return searchService.search(userId, city, text);
     }
 
+    @PostMapping("/batch")
+    public Mono<BatchSearchResponse> searchBatch(
+            @RequestAttribute(AuthTokenFilter.USER_ID) Long userId,
+            @RequestBody BatchSearchRequest request) {
+        logger.info("Получен запрос пакетного поиска для пользователя: {}", userId);
+        return searchService.searchBatch(userId, request);
+    }
+
     @GetMapping("/history")
-    public Mono<List<SearchResultDto>> getSearchHistory(@RequestParam Long userId) {
-        logger.info("Получен запрос истории поиска для пользователя: " + userId);
-        return searchResultService.getUserSearchHistory(userId);
+    public Mono<SearchHistoryPage> getSearchHistory(
+            @RequestAttribute(AuthTokenFilter.USER_ID) Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        logger.info("Получен запрос истории поиска для пользователя: {}", userId);
+        return searchResultService.getUserSearchHistory(userId, null, null, cursor, limit);
     }
 
     @GetMapping("/history/filter")
-    public Mono<List<SearchResultDto>> getSearchHistoryWithFilters(
-            @RequestParam Long userId,
+    public Mono<SearchHistoryPage> getSearchHistoryWithFilters(
+            @RequestAttribute(AuthTokenFilter.USER_ID) Long userId,
             @RequestParam(required = false) String city,
-            @RequestParam(required = false) String query) {
-        logger.info("Получен запрос истории с фильтрами. Пользователь: " + userId +
+            @RequestParam(required = false) String query,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        logger.info(() -> "Получен запрос истории с фильтрами. Пользователь: " + userId +
                 ", город: " + city + ", запрос: " + query);
-        return searchResultService.getUserSearchHistoryWithFilters(userId, city, query);
+        return searchResultService.getUserSearchHistory(userId, city, query, cursor, limit);
+    }
+
+    @GetMapping("/history/search")
+    public Mono<HistorySearchResult> searchHistory(
+            @RequestAttribute(AuthTokenFilter.USER_ID) Long userId,
+            @RequestParam String text,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) Integer offset,
+            @RequestParam(required = false) Integer limit) {
+        logger.info(() -> "Получен запрос поиска по истории. Пользователь: " + userId +
+                ", текст: " + text + ", город: " + city);
+        return searchResultService.searchUserHistory(userId, city, text, offset, limit);
+    }
+
+    @GetMapping(value = "/history/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<SearchResultSummaryDto> streamSearchHistory(
+            @RequestAttribute(AuthTokenFilter.USER_ID) Long userId,
+            @RequestParam(required = false) String city) {
+        logger.info("Получен запрос потоковой истории поиска для пользователя: {}", userId);
+        return searchResultService.streamUserSearchHistory(userId, city);
+    }
+
+    @GetMapping("/history/items/{itemId}")
+    public Mono<List<SearchResultSummaryDto>> getSearchesWithItem(
+            @PathVariable String itemId,
+            @RequestAttribute(AuthTokenFilter.USER_ID) Long userId,
+            @RequestParam(required = false) Integer limit) {
+        logger.info("Получен запрос поисков с элементом {} для пользователя: {}", itemId, userId);
+        return searchResultService.getSearchesWithItem(userId, itemId, limit);
     }
 
     @GetMapping("/history/{id}")
-    public Mono<SearchResultDto> getSearchResultById(@PathVariable Long id) {
-        logger.info("Получен запрос результата поиска по ID: " + id);
-        return searchResultService.getSearchResultById(id);
+    public Mono<SearchResultDto> getSearchResultById(
+            @PathVariable Long id,
+            @RequestAttribute(AuthTokenFilter.USER_ID) Long userId) {
+        logger.info("Получен запрос результата поиска по ID: {}", id);
+        return searchResultService.getSearchResultById(userId, id);
     }
 }
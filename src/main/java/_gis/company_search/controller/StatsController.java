@@ -0,0 +1,104 @@
+package _gis.company_search.controller;
+
+import _gis.company_search.config.BlockingScheduler;
+import _gis.company_search.config.ConnectionPoolMetricsRegistrar;
+import _gis.company_search.dto.AsyncLoggerStats;
+import _gis.company_search.dto.BlockingSchedulerStats;
+import _gis.company_search.dto.CircuitBreakerStats;
+import _gis.company_search.dto.ConnectionPoolStats;
+import _gis.company_search.dto.LoginCacheStats;
+import _gis.company_search.dto.RateLimiterStats;
+import _gis.company_search.dto.UpstreamCallStats;
+import _gis.company_search.dto.SearchCacheStats;
+import _gis.company_search.dto.WriteBehindStats;
+import _gis.company_search.logging.RingBufferLogBackend;
+import _gis.company_search.service.GisCircuitBreaker;
+import _gis.company_search.service.GisRequestLimiter;
+import _gis.company_search.service.LoginCache;
+import _gis.company_search.service.SearchCache;
+import _gis.company_search.service.SearchResultWriter;
+import _gis.company_search.service.UpstreamCallPolicy;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/stats")
+public class StatsController {
+    private final SearchCache searchCache;
+    private final RingBufferLogBackend logBackend;
+    private final ConnectionPoolMetricsRegistrar poolMetrics;
+    private final SearchResultWriter searchResultWriter;
+    private final GisRequestLimiter requestLimiter;
+    private final UpstreamCallPolicy callPolicy;
+    private final GisCircuitBreaker circuitBreaker;
+    private final BlockingScheduler blockingScheduler;
+    private final LoginCache loginCache;
+
+    public StatsController(
+            SearchCache searchCache,
+            RingBufferLogBackend logBackend,
+            ConnectionPoolMetricsRegistrar poolMetrics,
+            SearchResultWriter searchResultWriter,
+            GisRequestLimiter requestLimiter,
+            UpstreamCallPolicy callPolicy,
+            GisCircuitBreaker circuitBreaker,
+            BlockingScheduler blockingScheduler,
+            LoginCache loginCache) {
+        this.searchCache = searchCache;
+        this.logBackend = logBackend;
+        this.poolMetrics = poolMetrics;
+        this.searchResultWriter = searchResultWriter;
+        this.requestLimiter = requestLimiter;
+        this.callPolicy = callPolicy;
+        this.circuitBreaker = circuitBreaker;
+        this.blockingScheduler = blockingScheduler;
+        this.loginCache = loginCache;
+    }
+
+    @GetMapping("/cache")
+    public Mono<SearchCacheStats> getCacheStats() {
+        return Mono.fromSupplier(searchCache::getStats);
+    }
+
+    @GetMapping("/logger")
+    public Mono<AsyncLoggerStats> getLoggerStats() {
+        return Mono.fromSupplier(logBackend::getStats);
+    }
+
+    @GetMapping("/pool")
+    public Mono<ConnectionPoolStats> getPoolStats() {
+        return Mono.fromSupplier(poolMetrics::getStats);
+    }
+
+    @GetMapping("/write-behind")
+    public Mono<WriteBehindStats> getWriteBehindStats() {
+        return Mono.fromSupplier(searchResultWriter::getStats);
+    }
+
+    @GetMapping("/limiter")
+    public Mono<RateLimiterStats> getLimiterStats() {
+        return Mono.fromSupplier(requestLimiter::getStats);
+    }
+
+    @GetMapping("/upstream")
+    public Mono<UpstreamCallStats> getUpstreamStats() {
+        return Mono.fromSupplier(callPolicy::getStats);
+    }
+
+    @GetMapping("/breaker")
+    public Mono<CircuitBreakerStats> getBreakerStats() {
+        return Mono.fromSupplier(circuitBreaker::getStats);
+    }
+
+    @GetMapping("/blocking")
+    public Mono<BlockingSchedulerStats> getBlockingStats() {
+        return Mono.fromSupplier(blockingScheduler::getStats);
+    }
+
+    @GetMapping("/login-cache")
+    public Mono<LoginCacheStats> getLoginCacheStats() {
+        return Mono.fromSupplier(loginCache::getStats);
+    }
+}
@@ -7,6 +7,7 @@ import _gis.company_search.dto.LoginRequest;
 import _gis.company_search.dto.UserRequest;
 import _gis.company_search.dto.UserResponse;
 import _gis.company_search.entity.UserEntity;
+import _gis.company_search.service.TokenService;
 import _gis.company_search.service.UserService;
 
 @RestController
@@ -14,9 +15,11 @@ import _gis.company_search.service.UserService;
 public class UserController {
 
     private final UserService userService;
+    private final TokenService tokenService;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, TokenService tokenService) {
         this.userService = userService;
+        this.tokenService = tokenService;
     }
 
     @PostMapping("/")
@@ -31,6 +34,7 @@ public class UserController {
 
     @PostMapping("/login/")
     public Mono<UserResponse> loginUser(@RequestBody LoginRequest request) {
-        return userService.login(request.getEmail(), request.getPassword()).map(UserResponse::new);
+        return userService.login(request.getEmail(), request.getPassword())
+                .map(user -> new UserResponse(user, tokenService.issue(user.getId())));
     }
 }
\ No newline at end of file
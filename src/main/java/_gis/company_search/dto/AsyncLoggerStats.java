@@ -0,0 +1,37 @@
+package _gis.company_search.dto;
+
+public class AsyncLoggerStats {
+    private final int capacity;
+    private final long queued;
+    private final long enqueued;
+    private final long dropped;
+    private final long written;
+
+    public AsyncLoggerStats(int capacity, long queued, long enqueued, long dropped, long written) {
+        this.capacity = capacity;
+        this.queued = queued;
+        this.enqueued = enqueued;
+        this.dropped = dropped;
+        this.written = written;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getQueued() {
+        return queued;
+    }
+
+    public long getEnqueued() {
+        return enqueued;
+    }
+
+    public long getDropped() {
+        return dropped;
+    }
+
+    public long getWritten() {
+        return written;
+    }
+}
@@ -0,0 +1,42 @@
+package _gis.company_search.dto;
+
+import java.util.List;
+
+public class BatchSearchRequest {
+    private List<SearchRequest> queries;
+    private Integer firstPage;
+    private Integer lastPage;
+    private Integer pageSize;
+
+    public List<SearchRequest> getQueries() {
+        return queries;
+    }
+
+    public void setQueries(List<SearchRequest> queries) {
+        this.queries = queries;
+    }
+
+    public Integer getFirstPage() {
+        return firstPage;
+    }
+
+    public void setFirstPage(Integer firstPage) {
+        this.firstPage = firstPage;
+    }
+
+    public Integer getLastPage() {
+        return lastPage;
+    }
+
+    public void setLastPage(Integer lastPage) {
+        this.lastPage = lastPage;
+    }
+
+    public Integer getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(Integer pageSize) {
+        this.pageSize = pageSize;
+    }
+}
@@ -0,0 +1,33 @@
+package _gis.company_search.dto;
+
+import java.util.List;
+
+public class BatchSearchResponse {
+    private final List<GisItem> items;
+    private final int pagesFetched;
+    private final int pagesFailed;
+    private final int resultsSaved;
+
+    public BatchSearchResponse(List<GisItem> items, int pagesFetched, int pagesFailed, int resultsSaved) {
+        this.items = items;
+        this.pagesFetched = pagesFetched;
+        this.pagesFailed = pagesFailed;
+        this.resultsSaved = resultsSaved;
+    }
+
+    public List<GisItem> getItems() {
+        return items;
+    }
+
+    public int getPagesFetched() {
+        return pagesFetched;
+    }
+
+    public int getPagesFailed() {
+        return pagesFailed;
+    }
+
+    public int getResultsSaved() {
+        return resultsSaved;
+    }
+}
@@ -0,0 +1,43 @@
+package _gis.company_search.dto;
+
+public class BlockingSchedulerStats {
+    private final boolean virtualThreads;
+    private final int poolSize;
+    private final int active;
+    private final int queued;
+    private final long completed;
+    private final long rejected;
+
+    public BlockingSchedulerStats(boolean virtualThreads, int poolSize, int active, int queued, long completed, long rejected) {
+        this.virtualThreads = virtualThreads;
+        this.poolSize = poolSize;
+        this.active = active;
+        this.queued = queued;
+        this.completed = completed;
+        this.rejected = rejected;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public int getQueued() {
+        return queued;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+}
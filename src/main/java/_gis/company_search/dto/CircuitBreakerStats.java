@@ -0,0 +1,63 @@
+package _gis.company_search.dto;
+
+public class CircuitBreakerStats {
+    private final boolean enabled;
+    private final String state;
+    private final int failureRate;
+    private final int bufferedCalls;
+    private final long rejected;
+    private final long opened;
+    private final long halfOpened;
+    private final long closed;
+
+    public CircuitBreakerStats(
+            boolean enabled,
+            String state,
+            int failureRate,
+            int bufferedCalls,
+            long rejected,
+            long opened,
+            long halfOpened,
+            long closed) {
+        this.enabled = enabled;
+        this.state = state;
+        this.failureRate = failureRate;
+        this.bufferedCalls = bufferedCalls;
+        this.rejected = rejected;
+        this.opened = opened;
+        this.halfOpened = halfOpened;
+        this.closed = closed;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public int getFailureRate() {
+        return failureRate;
+    }
+
+    public int getBufferedCalls() {
+        return bufferedCalls;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getOpened() {
+        return opened;
+    }
+
+    public long getHalfOpened() {
+        return halfOpened;
+    }
+
+    public long getClosed() {
+        return closed;
+    }
+}
@@ -0,0 +1,37 @@
+package _gis.company_search.dto;
+
+public class ConnectionPoolStats {
+    private final int pools;
+    private final int active;
+    private final int idle;
+    private final int pendingAcquires;
+    private final int allocated;
+
+    public ConnectionPoolStats(int pools, int active, int idle, int pendingAcquires, int allocated) {
+        this.pools = pools;
+        this.active = active;
+        this.idle = idle;
+        this.pendingAcquires = pendingAcquires;
+        this.allocated = allocated;
+    }
+
+    public int getPools() {
+        return pools;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public int getIdle() {
+        return idle;
+    }
+
+    public int getPendingAcquires() {
+        return pendingAcquires;
+    }
+
+    public int getAllocated() {
+        return allocated;
+    }
+}
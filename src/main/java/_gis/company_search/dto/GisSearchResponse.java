@@ -1,5 +1,7 @@
 package _gis.company_search.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -7,6 +9,9 @@ public class GisSearchResponse {
 
     private List<GisItem> items;
 
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private boolean stale;
+
     public GisSearchResponse() {
         this.items = new ArrayList<>();
     }
@@ -22,4 +27,18 @@ public class GisSearchResponse {
     public void setItems(List<GisItem> items) {
         this.items = items;
     }
-}
\ No newline at end of file
+
+    public boolean isStale() {
+        return stale;
+    }
+
+    public void setStale(boolean stale) {
+        this.stale = stale;
+    }
+
+    public GisSearchResponse asStale() {
+        GisSearchResponse copy = new GisSearchResponse(items);
+        copy.stale = true;
+        return copy;
+    }
+}
@@ -0,0 +1,44 @@
+package _gis.company_search.dto;
+
+import java.util.List;
+
+public class HistorySearchResult {
+    private final List<SearchResultSummaryDto> items;
+    private final int total;
+    private final int offset;
+    private final int limit;
+    private final boolean truncated;
+
+    public HistorySearchResult(
+            List<SearchResultSummaryDto> items,
+            int total,
+            int offset,
+            int limit,
+            boolean truncated) {
+        this.items = items;
+        this.total = total;
+        this.offset = offset;
+        this.limit = limit;
+        this.truncated = truncated;
+    }
+
+    public List<SearchResultSummaryDto> getItems() {
+        return items;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+}
@@ -0,0 +1,37 @@
+package _gis.company_search.dto;
+
+public class LoginCacheStats {
+    private final boolean enabled;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final int size;
+
+    public LoginCacheStats(boolean enabled, long hits, long misses, long evictions, int size) {
+        this.enabled = enabled;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.size = size;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public int getSize() {
+        return size;
+    }
+}
@@ -0,0 +1,39 @@
+package _gis.company_search.dto;
+
+import java.time.LocalDateTime;
+
+public class PendingSearchResult {
+    private final Long userId;
+    private final String city;
+    private final String query;
+    private final GisSearchResponse response;
+    private final LocalDateTime createdAt;
+
+    public PendingSearchResult(Long userId, String city, String query, GisSearchResponse response) {
+        this.userId = userId;
+        this.city = city;
+        this.query = query;
+        this.response = response;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public GisSearchResponse getResponse() {
+        return response;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
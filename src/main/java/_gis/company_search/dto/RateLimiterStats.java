@@ -0,0 +1,63 @@
+package _gis.company_search.dto;
+
+public class RateLimiterStats {
+    private final boolean enabled;
+    private final int concurrencyLimit;
+    private final int inFlight;
+    private final int queued;
+    private final long granted;
+    private final long rejected;
+    private final long timedOut;
+    private final long throttled;
+
+    public RateLimiterStats(
+            boolean enabled,
+            int concurrencyLimit,
+            int inFlight,
+            int queued,
+            long granted,
+            long rejected,
+            long timedOut,
+            long throttled) {
+        this.enabled = enabled;
+        this.concurrencyLimit = concurrencyLimit;
+        this.inFlight = inFlight;
+        this.queued = queued;
+        this.granted = granted;
+        this.rejected = rejected;
+        this.timedOut = timedOut;
+        this.throttled = throttled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    public int getQueued() {
+        return queued;
+    }
+
+    public long getGranted() {
+        return granted;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getTimedOut() {
+        return timedOut;
+    }
+
+    public long getThrottled() {
+        return throttled;
+    }
+}
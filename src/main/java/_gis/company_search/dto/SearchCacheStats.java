@@ -0,0 +1,49 @@
+package _gis.company_search.dto;
+
+public class SearchCacheStats {
+    private final long hits;
+    private final long staleHits;
+    private final long misses;
+    private final long coalesced;
+    private final long evictions;
+    private final int size;
+    private final int inFlight;
+
+    public SearchCacheStats(long hits, long staleHits, long misses, long coalesced, long evictions, int size, int inFlight) {
+        this.hits = hits;
+        this.staleHits = staleHits;
+        this.misses = misses;
+        this.coalesced = coalesced;
+        this.evictions = evictions;
+        this.size = size;
+        this.inFlight = inFlight;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getStaleHits() {
+        return staleHits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getCoalesced() {
+        return coalesced;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+}
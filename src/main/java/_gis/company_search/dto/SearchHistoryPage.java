@@ -0,0 +1,21 @@
+package _gis.company_search.dto;
+
+import java.util.List;
+
+public class SearchHistoryPage {
+    private final List<SearchResultSummaryDto> items;
+    private final String nextCursor;
+
+    public SearchHistoryPage(List<SearchResultSummaryDto> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<SearchResultSummaryDto> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
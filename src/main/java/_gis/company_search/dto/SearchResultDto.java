@@ -1,7 +1,6 @@
 package _gis.company_search.dto;
 
 import _gis.company_search.entity.SearchResultEntity;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.time.LocalDateTime;
 
@@ -18,7 +17,7 @@ public class SearchResultDto {
 
     public SearchResultDto() {}
 
-    public SearchResultDto(SearchResultEntity entity, ObjectMapper mapper) {
+    public SearchResultDto(SearchResultEntity entity, GisSearchResponse results) {
         this.id = entity.getId();
         this.userId = entity.getUser().getId();
         this.userName = entity.getUser().getName();
@@ -27,12 +26,7 @@ public class SearchResultDto {
         this.query = entity.getQuery();
         this.createdAt = entity.getCreatedAt();
         this.resultsCount = entity.getResultsCount();
-
-        try {
-            this.results = mapper.readValue(entity.getResultsJson(), GisSearchResponse.class);
-        } catch (Exception e) {
-            this.results = new GisSearchResponse();
-        }
+        this.results = results;
     }
 
     public Long getId() {
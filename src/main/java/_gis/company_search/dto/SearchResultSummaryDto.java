@@ -0,0 +1,51 @@
+package _gis.company_search.dto;
+
+import java.time.LocalDateTime;
+
+public class SearchResultSummaryDto {
+    private final Long id;
+    private final Long userId;
+    private final String city;
+    private final String query;
+    private final LocalDateTime createdAt;
+    private final Integer resultsCount;
+
+    public SearchResultSummaryDto(
+            Long id,
+            Long userId,
+            String city,
+            String query,
+            LocalDateTime createdAt,
+            Integer resultsCount) {
+        this.id = id;
+        this.userId = userId;
+        this.city = city;
+        this.query = query;
+        this.createdAt = createdAt;
+        this.resultsCount = resultsCount;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Integer getResultsCount() {
+        return resultsCount;
+    }
+}
@@ -0,0 +1,56 @@
+package _gis.company_search.dto;
+
+public class UpstreamCallStats {
+    private final long calls;
+    private final long retries;
+    private final long retriesDenied;
+    private final long hedges;
+    private final long hedgeWins;
+    private final long deadlineExceeded;
+    private final double p95Millis;
+
+    public UpstreamCallStats(
+            long calls,
+            long retries,
+            long retriesDenied,
+            long hedges,
+            long hedgeWins,
+            long deadlineExceeded,
+            double p95Millis) {
+        this.calls = calls;
+        this.retries = retries;
+        this.retriesDenied = retriesDenied;
+        this.hedges = hedges;
+        this.hedgeWins = hedgeWins;
+        this.deadlineExceeded = deadlineExceeded;
+        this.p95Millis = p95Millis;
+    }
+
+    public long getCalls() {
+        return calls;
+    }
+
+    public long getRetries() {
+        return retries;
+    }
+
+    public long getRetriesDenied() {
+        return retriesDenied;
+    }
+
+    public long getHedges() {
+        return hedges;
+    }
+
+    public long getHedgeWins() {
+        return hedgeWins;
+    }
+
+    public long getDeadlineExceeded() {
+        return deadlineExceeded;
+    }
+
+    public double getP95Millis() {
+        return p95Millis;
+    }
+}
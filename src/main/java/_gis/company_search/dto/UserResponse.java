@@ -1,16 +1,25 @@
 package _gis.company_search.dto;
 
 import _gis.company_search.entity.UserEntity;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 public class UserResponse {
     private String name;
     private String email;
     private Long id;
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String token;
+
     public UserResponse(UserEntity user) {
+        this(user, null);
+    }
+
+    public UserResponse(UserEntity user, String token) {
         this.id = user.getId();
         this.name = user.getName();
         this.email = user.getEmail();
+        this.token = token;
     }
 
     public String getName() {
@@ -25,6 +34,10 @@ public class UserResponse {
         return id;
     }
 
+    public String getToken() {
+        return token;
+    }
+
     public void setName(String name){
         this.name = name;
     }
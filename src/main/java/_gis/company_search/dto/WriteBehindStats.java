@@ -0,0 +1,56 @@
+package _gis.company_search.dto;
+
+public class WriteBehindStats {
+    private final boolean enabled;
+    private final int queued;
+    private final int remainingCapacity;
+    private final long written;
+    private final long skipped;
+    private final long failed;
+    private final long inlineWrites;
+
+    public WriteBehindStats(
+            boolean enabled,
+            int queued,
+            int remainingCapacity,
+            long written,
+            long skipped,
+            long failed,
+            long inlineWrites) {
+        this.enabled = enabled;
+        this.queued = queued;
+        this.remainingCapacity = remainingCapacity;
+        this.written = written;
+        this.skipped = skipped;
+        this.failed = failed;
+        this.inlineWrites = inlineWrites;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getQueued() {
+        return queued;
+    }
+
+    public int getRemainingCapacity() {
+        return remainingCapacity;
+    }
+
+    public long getWritten() {
+        return written;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public long getInlineWrites() {
+        return inlineWrites;
+    }
+}
@@ -0,0 +1,81 @@
+package _gis.company_search.entity;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "gis_items")
+public class GisItemEntity implements Persistable<String> {
+    public static final int ID_MAX_LENGTH = 64;
+
+    @Id
+    @Column(length = ID_MAX_LENGTH)
+    private String id;
+
+    @Column(nullable = false, length = 1024)
+    private String name;
+
+    @Column(nullable = false, length = 1024)
+    private String address;
+
+    @Column(name = "content_hash", nullable = false)
+    private long contentHash;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Transient
+    private boolean isNew;
+
+    public GisItemEntity() {}
+
+    public GisItemEntity(String id, String name, String address, long contentHash) {
+        this.id = id;
+        this.name = name;
+        this.address = address;
+        this.contentHash = contentHash;
+        this.updatedAt = LocalDateTime.now();
+        this.isNew = true;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public long getContentHash() {
+        return contentHash;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void update(String name, String address, long contentHash) {
+        this.name = name;
+        this.address = address;
+        this.contentHash = contentHash;
+        this.updatedAt = LocalDateTime.now();
+    }
+}
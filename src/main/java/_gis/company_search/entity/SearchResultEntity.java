@@ -7,12 +7,19 @@ import java.time.LocalDateTime;
 @Table(name = "search_results", indexes = {
         @Index(name = "idx_user_id", columnList = "user_id"),
         @Index(name = "idx_created_at", columnList = "created_at"),
+        @Index(name = "idx_user_created_id", columnList = "user_id, created_at, id"),
         @Index(name = "idx_city", columnList = "city"),
-        @Index(name = "idx_query", columnList = "query")
+        @Index(name = "idx_query", columnList = "query"),
+        @Index(name = "idx_city_query_created", columnList = "city, query, created_at")
 })
 public class SearchResultEntity {
+    public static final String ID_SEQUENCE = "search_results_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+    public static final int PAYLOAD_MAX_LENGTH = 4 * 1024 * 1024;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -31,6 +38,9 @@ public class SearchResultEntity {
     @Column(name = "results_json", columnDefinition = "TEXT")
     private String resultsJson;
 
+    @Column(name = "results_payload", length = PAYLOAD_MAX_LENGTH)
+    private byte[] resultsPayload;
+
     @Column(name = "results_count")
     private Integer resultsCount;
 
@@ -38,11 +48,11 @@ public class SearchResultEntity {
         this.createdAt = LocalDateTime.now();
     }
 
-    public SearchResultEntity(UserEntity user, String city, String query, String resultsJson, Integer resultsCount) {
+    public SearchResultEntity(UserEntity user, String city, String query, byte[] resultsPayload, Integer resultsCount) {
         this.user = user;
         this.city = city;
         this.query = query;
-        this.resultsJson = resultsJson;
+        this.resultsPayload = resultsPayload;
         this.resultsCount = resultsCount;
         this.createdAt = LocalDateTime.now();
     }
@@ -95,6 +105,14 @@ public class SearchResultEntity {
         this.resultsJson = resultsJson;
     }
 
+    public byte[] getResultsPayload() {
+        return resultsPayload;
+    }
+
+    public void setResultsPayload(byte[] resultsPayload) {
+        this.resultsPayload = resultsPayload;
+    }
+
     public Integer getResultsCount() {
         return resultsCount;
     }
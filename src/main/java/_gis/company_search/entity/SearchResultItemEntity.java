@@ -0,0 +1,68 @@
+package _gis.company_search.entity;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+
+@Entity
+@Table(name = "search_result_items", indexes = {
+        @Index(name = "idx_search_result_items_item", columnList = "item_id")
+})
+@IdClass(SearchResultItemEntity.Key.class)
+public class SearchResultItemEntity implements Persistable<SearchResultItemEntity.Key> {
+
+    @Id
+    @Column(name = "search_result_id")
+    private Long searchResultId;
+
+    @Id
+    @Column(name = "item_rank")
+    private Integer rank;
+
+    @Column(name = "item_id", nullable = false, length = GisItemEntity.ID_MAX_LENGTH)
+    private String itemId;
+
+    @Transient
+    private boolean isNew;
+
+    public SearchResultItemEntity() {}
+
+    public SearchResultItemEntity(Long searchResultId, Integer rank, String itemId) {
+        this.searchResultId = searchResultId;
+        this.rank = rank;
+        this.itemId = itemId;
+        this.isNew = true;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    @Override
+    public Key getId() {
+        return new Key(searchResultId, rank);
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    public Long getSearchResultId() {
+        return searchResultId;
+    }
+
+    public Integer getRank() {
+        return rank;
+    }
+
+    public String getItemId() {
+        return itemId;
+    }
+
+    public record Key(Long searchResultId, Integer rank) implements Serializable {
+    }
+}
@@ -1,7 +1,22 @@
 package _gis.company_search.exception;
 
 public class DoubleGisApiException extends RuntimeException {
+    private final int status;
+
     public DoubleGisApiException() {
+        this(0);
+    }
+
+    public DoubleGisApiException(int status) {
         super("Error in 2Gis API");
+        this.status = status;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public boolean isThrottled() {
+        return status == 429 || status == 503;
     }
 }
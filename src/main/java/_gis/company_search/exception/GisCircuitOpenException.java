@@ -0,0 +1,7 @@
+package _gis.company_search.exception;
+
+public class GisCircuitOpenException extends RuntimeException {
+    public GisCircuitOpenException() {
+        super("2Gis API is temporarily unavailable");
+    }
+}
@@ -0,0 +1,7 @@
+package _gis.company_search.exception;
+
+public class GisRateLimitedException extends RuntimeException {
+    public GisRateLimitedException() {
+        super("Too many concurrent requests to 2Gis API");
+    }
+}
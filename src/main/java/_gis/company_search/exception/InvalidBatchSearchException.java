@@ -0,0 +1,7 @@
+package _gis.company_search.exception;
+
+public class InvalidBatchSearchException extends RuntimeException {
+    public InvalidBatchSearchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package _gis.company_search.exception;
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException() {
+        super("Invalid history cursor");
+    }
+}
@@ -0,0 +1,7 @@
+package _gis.company_search.exception;
+
+public class ResponseParseException extends RuntimeException {
+    public ResponseParseException(Throwable cause) {
+        super("Error parsing 2Gis response", cause);
+    }
+}
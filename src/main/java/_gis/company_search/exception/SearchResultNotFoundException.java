@@ -0,0 +1,7 @@
+package _gis.company_search.exception;
+
+public class SearchResultNotFoundException extends RuntimeException {
+    public SearchResultNotFoundException(Long id) {
+        super("Search result not found with id: " + id);
+    }
+}
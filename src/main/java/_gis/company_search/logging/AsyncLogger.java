@@ -1,53 +1,114 @@
 package _gis.company_search.logging;
 
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
 
+/**
+ * Level-gated front end of {@link RingBufferLogBackend}.
+ * <p>
+ * Calls below the configured level return before touching the ring. For messages that are
+ * expensive to build, use the {@link Supplier} overloads or a {@code {}} template: suppliers are
+ * only invoked when the level is enabled, templates are filled in on the logging thread. Template
+ * arguments are rendered there too, so they should be immutable (strings, numbers, ids).
+ */
 @Component
 public class AsyncLogger {
-    private final ExecutorService loggingExecutor;
-    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+    private final RingBufferLogBackend backend;
+    private volatile LogLevel level;
 
-    public AsyncLogger(@Qualifier("loggingExecutorService") ExecutorService loggingExecutor) {
-        this.loggingExecutor = loggingExecutor;
+    public AsyncLogger(
+            RingBufferLogBackend backend,
+            @Value("${async-logger.level:INFO}") LogLevel level
+    ) {
+        this.backend = backend;
+        this.level = level;
+    }
+
+    public LogLevel getLevel() {
+        return level;
+    }
+
+    public void setLevel(LogLevel level) {
+        this.level = level;
+    }
+
+    public boolean isEnabled(LogLevel candidate) {
+        return candidate.compareTo(level) >= 0;
+    }
+
+    public boolean isDebugEnabled() {
+        return isEnabled(LogLevel.DEBUG);
     }
 
     public void info(String message) {
-        loggingExecutor.submit(() -> {
-            String timestamp = LocalDateTime.now().format(formatter);
-            String threadName = Thread.currentThread().getName();
-            System.out.println(String.format("[%s] [%s] [INFO] %s", timestamp, threadName, message));
-        });
+        log(LogLevel.INFO, message, null);
+    }
+
+    public void info(String pattern, Object arg) {
+        log(LogLevel.INFO, pattern, 1, arg, null);
+    }
+
+    public void info(String pattern, Object arg1, Object arg2) {
+        log(LogLevel.INFO, pattern, 2, arg1, arg2);
+    }
+
+    public void info(Supplier<String> message) {
+        if (isEnabled(LogLevel.INFO)) {
+            backend.publish(LogLevel.INFO, message.get(), null);
+        }
     }
 
     public void error(String message, Throwable throwable) {
-        loggingExecutor.submit(() -> {
-            String timestamp = LocalDateTime.now().format(formatter);
-            String threadName = Thread.currentThread().getName();
-            System.err.println(String.format("[%s] [%s] [ERROR] %s", timestamp, threadName, message));
-            if (throwable != null) {
-                throwable.printStackTrace(System.err);
-            }
-        });
+        log(LogLevel.ERROR, message, throwable);
+    }
+
+    public void error(Supplier<String> message, Throwable throwable) {
+        if (isEnabled(LogLevel.ERROR)) {
+            backend.publish(LogLevel.ERROR, message.get(), throwable);
+        }
     }
 
     public void warn(String message) {
-        loggingExecutor.submit(() -> {
-            String timestamp = LocalDateTime.now().format(formatter);
-            String threadName = Thread.currentThread().getName();
-            System.out.println(String.format("[%s] [%s] [WARN] %s", timestamp, threadName, message));
-        });
+        log(LogLevel.WARN, message, null);
+    }
+
+    public void warn(String pattern, Object arg) {
+        log(LogLevel.WARN, pattern, 1, arg, null);
+    }
+
+    public void warn(String pattern, Object arg1, Object arg2) {
+        log(LogLevel.WARN, pattern, 2, arg1, arg2);
     }
 
     public void debug(String message) {
-        loggingExecutor.submit(() -> {
-            String timestamp = LocalDateTime.now().format(formatter);
-            String threadName = Thread.currentThread().getName();
-            System.out.println(String.format("[%s] [%s] [DEBUG] %s", timestamp, threadName, message));
-        });
+        log(LogLevel.DEBUG, message, null);
+    }
+
+    public void debug(String pattern, Object arg) {
+        log(LogLevel.DEBUG, pattern, 1, arg, null);
+    }
+
+    public void debug(String pattern, Object arg1, Object arg2) {
+        log(LogLevel.DEBUG, pattern, 2, arg1, arg2);
+    }
+
+    public void debug(Supplier<String> message) {
+        if (isEnabled(LogLevel.DEBUG)) {
+            backend.publish(LogLevel.DEBUG, message.get(), null);
+        }
+    }
+
+    private void log(LogLevel candidate, String message, Throwable throwable) {
+        if (isEnabled(candidate)) {
+            backend.publish(candidate, message, throwable);
+        }
+    }
+
+    private void log(LogLevel candidate, String pattern, int argCount, Object arg1, Object arg2) {
+        if (isEnabled(candidate)) {
+            backend.publish(candidate, pattern, argCount, arg1, arg2, null);
+        }
     }
 }
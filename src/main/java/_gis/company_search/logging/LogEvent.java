@@ -0,0 +1,35 @@
+package _gis.company_search.logging;
+
+final class LogEvent {
+    volatile long sequence = -1;
+
+    long timestamp;
+    LogLevel level;
+    String threadName;
+    String message;
+    int argCount;
+    Object arg1;
+    Object arg2;
+    Throwable throwable;
+
+    void set(LogLevel level, String threadName, String message, int argCount, Object arg1, Object arg2,
+             Throwable throwable) {
+        this.timestamp = System.currentTimeMillis();
+        this.level = level;
+        this.threadName = threadName;
+        this.message = message;
+        this.argCount = argCount;
+        this.arg1 = arg1;
+        this.arg2 = arg2;
+        this.throwable = throwable;
+    }
+
+    void clear() {
+        this.level = null;
+        this.threadName = null;
+        this.message = null;
+        this.arg1 = null;
+        this.arg2 = null;
+        this.throwable = null;
+    }
+}
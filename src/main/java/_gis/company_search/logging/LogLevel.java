@@ -0,0 +1,8 @@
+package _gis.company_search.logging;
+
+public enum LogLevel {
+    DEBUG,
+    INFO,
+    WARN,
+    ERROR
+}
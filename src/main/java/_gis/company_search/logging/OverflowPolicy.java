@@ -0,0 +1,10 @@
+package _gis.company_search.logging;
+
+public enum OverflowPolicy {
+    /** Producers wait for a free slot, nothing is lost. */
+    BLOCK,
+    /** DEBUG is shed past the high watermark, INFO once the ring is full; WARN and ERROR wait. */
+    DROP_DEBUG_FIRST,
+    /** DEBUG and INFO are sampled 1-in-N past the high watermark and shed once full; WARN and ERROR wait. */
+    SAMPLE
+}
@@ -0,0 +1,324 @@
+package _gis.company_search.logging;
+
+import _gis.company_search.dto.AsyncLoggerStats;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded multi-producer / single-consumer ring of preallocated {@link LogEvent} slots.
+ * <p>
+ * Producers claim a sequence with a CAS, fill the slot and publish it by writing the slot sequence.
+ * A single daemon thread formats published events and writes them in batches straight to the
+ * stdout/stderr channels. {@code {}} placeholders are substituted on that thread as well, so a
+ * templated call costs the producer nothing but the slot write. Arguments are rendered with
+ * {@code toString()} only then: pass immutable values, since a mutable argument changed after the
+ * call is logged in its later state. When the ring fills up, {@link OverflowPolicy} decides whether
+ * the producer waits or the event is dropped.
+ */
+public class RingBufferLogBackend implements AutoCloseable {
+    private static final int HIGH_WATERMARK_PERCENT = 75;
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+    private static final long CONSUMER_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long PRODUCER_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long CLOSE_TIMEOUT_MILLIS = 5_000;
+    private static final DateTimeFormatter SECOND_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final LogEvent[] slots;
+    private final int mask;
+    private final int highWatermark;
+    private final OverflowPolicy overflowPolicy;
+    private final int sampleRate;
+    private final int batchSize;
+
+    private final AtomicLong claimed = new AtomicLong();
+    private volatile long consumed;
+    private final AtomicLong sampleCounter = new AtomicLong();
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicLong written = new AtomicLong();
+
+    private final ChannelWriter out;
+    private final ChannelWriter err;
+    private final StringBuilder line = new StringBuilder(256);
+    private final ZoneId zone = ZoneId.systemDefault();
+    private long cachedSecond = Long.MIN_VALUE;
+    private String cachedSecondText;
+
+    private final Thread consumer;
+    private volatile boolean running = true;
+    private volatile boolean consumerParked;
+
+    public RingBufferLogBackend(int bufferSize, OverflowPolicy overflowPolicy, int sampleRate, int batchSize) {
+        this(bufferSize, overflowPolicy, sampleRate, batchSize,
+                new FileOutputStream(FileDescriptor.out).getChannel(),
+                new FileOutputStream(FileDescriptor.err).getChannel());
+    }
+
+    public RingBufferLogBackend(
+            int bufferSize,
+            OverflowPolicy overflowPolicy,
+            int sampleRate,
+            int batchSize,
+            WritableByteChannel outChannel,
+            WritableByteChannel errChannel) {
+        int capacity = Integer.highestOneBit(Math.max(2, bufferSize - 1)) << 1;
+        this.slots = new LogEvent[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new LogEvent();
+        }
+        this.mask = capacity - 1;
+        this.highWatermark = capacity * HIGH_WATERMARK_PERCENT / 100;
+        this.overflowPolicy = overflowPolicy;
+        this.sampleRate = Math.max(1, sampleRate);
+        this.batchSize = Math.max(1, batchSize);
+        this.out = new ChannelWriter(outChannel);
+        this.err = new ChannelWriter(errChannel);
+
+        this.consumer = new Thread(this::drainLoop, "async-logger");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    public void publish(LogLevel level, String message, Throwable throwable) {
+        publish(level, message, 0, null, null, throwable);
+    }
+
+    public void publish(LogLevel level, String pattern, int argCount, Object arg1, Object arg2, Throwable throwable) {
+        long sequence = claim(level);
+        if (sequence < 0) {
+            dropped.increment();
+            return;
+        }
+
+        LogEvent event = slots[(int) (sequence & mask)];
+        event.set(level, Thread.currentThread().getName(), pattern, argCount, arg1, arg2, throwable);
+        event.sequence = sequence;
+        enqueued.increment();
+
+        if (consumerParked) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    public AsyncLoggerStats getStats() {
+        return new AsyncLoggerStats(
+                slots.length,
+                claimed.get() - consumed,
+                enqueued.sum(),
+                dropped.sum(),
+                written.get()
+        );
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(consumer);
+        consumer.join(CLOSE_TIMEOUT_MILLIS);
+    }
+
+    private long claim(LogLevel level) {
+        while (running) {
+            long sequence = claimed.get();
+            long depth = sequence - consumed;
+
+            if (depth >= slots.length) {
+                if (overflowPolicy != OverflowPolicy.BLOCK && level.compareTo(LogLevel.INFO) <= 0) {
+                    return -1;
+                }
+                LockSupport.unpark(consumer);
+                LockSupport.parkNanos(this, PRODUCER_PARK_NANOS);
+                continue;
+            }
+
+            if (depth >= highWatermark && shedAboveWatermark(level)) {
+                return -1;
+            }
+
+            if (claimed.compareAndSet(sequence, sequence + 1)) {
+                return sequence;
+            }
+        }
+        return -1;
+    }
+
+    private boolean shedAboveWatermark(LogLevel level) {
+        return switch (overflowPolicy) {
+            case BLOCK -> false;
+            case DROP_DEBUG_FIRST -> level == LogLevel.DEBUG;
+            case SAMPLE -> level.compareTo(LogLevel.INFO) <= 0
+                    && sampleCounter.getAndIncrement() % sampleRate != 0;
+        };
+    }
+
+    private void drainLoop() {
+        long next = consumed;
+        int batch = 0;
+
+        while (true) {
+            LogEvent event = slots[(int) (next & mask)];
+            if (event.sequence == next) {
+                try {
+                    format(event);
+                } catch (RuntimeException e) {
+                    // a throwing toString() must not stop the drain, or producers wait on a full ring forever
+                    formatFallback(event, e);
+                }
+                (event.level == LogLevel.ERROR ? err : out).append(line);
+                event.clear();
+                consumed = ++next;
+                written.incrementAndGet();
+
+                if (++batch >= batchSize) {
+                    flush();
+                    batch = 0;
+                }
+                continue;
+            }
+
+            if (batch > 0) {
+                flush();
+                batch = 0;
+            }
+            if (!running && next == claimed.get()) {
+                break;
+            }
+
+            consumerParked = true;
+            if (event.sequence != next && running) {
+                LockSupport.parkNanos(this, CONSUMER_PARK_NANOS);
+            }
+            consumerParked = false;
+        }
+        flush();
+    }
+
+    private void format(LogEvent event) {
+        line.setLength(0);
+        line.append('[');
+        appendTimestamp(event.timestamp);
+        line.append("] [").append(event.threadName)
+                .append("] [").append(event.level.name())
+                .append("] ");
+        appendMessage(event);
+        line.append(System.lineSeparator());
+
+        if (event.throwable != null) {
+            StringWriter trace = new StringWriter();
+            event.throwable.printStackTrace(new PrintWriter(trace));
+            line.append(trace);
+        }
+    }
+
+    private void formatFallback(LogEvent event, RuntimeException failure) {
+        line.setLength(0);
+        line.append('[');
+        appendTimestamp(event.timestamp);
+        line.append("] [").append(event.threadName)
+                .append("] [").append(event.level.name())
+                .append("] ").append(event.message)
+                .append(" [не удалось сформировать запись: ").append(failure.getClass().getName()).append(']')
+                .append(System.lineSeparator());
+    }
+
+    private void appendMessage(LogEvent event) {
+        String message = event.message;
+        if (event.argCount == 0 || message == null) {
+            line.append(message);
+            return;
+        }
+
+        int from = 0;
+        for (int arg = 0; arg < event.argCount; arg++) {
+            int placeholder = message.indexOf("{}", from);
+            if (placeholder < 0) {
+                break;
+            }
+            line.append(message, from, placeholder).append(arg == 0 ? event.arg1 : event.arg2);
+            from = placeholder + 2;
+        }
+        line.append(message, from, message.length());
+    }
+
+    private void appendTimestamp(long millis) {
+        long second = Math.floorDiv(millis, 1000);
+        if (second != cachedSecond) {
+            cachedSecond = second;
+            cachedSecondText = SECOND_FORMAT.format(Instant.ofEpochSecond(second).atZone(zone));
+        }
+        int fraction = (int) Math.floorMod(millis, 1000);
+        line.append(cachedSecondText).append('.');
+        if (fraction < 100) {
+            line.append('0');
+        }
+        if (fraction < 10) {
+            line.append('0');
+        }
+        line.append(fraction);
+    }
+
+    private void flush() {
+        out.flush();
+        err.flush();
+    }
+
+    private static final class ChannelWriter {
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(OUTPUT_BUFFER_SIZE);
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private CharBuffer chars = CharBuffer.allocate(1024);
+
+        ChannelWriter(WritableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        void append(StringBuilder text) {
+            int length = text.length();
+            if (chars.capacity() < length) {
+                chars = CharBuffer.allocate(Integer.highestOneBit(length) << 1);
+            }
+            chars.clear();
+            text.getChars(0, length, chars.array(), 0);
+            chars.limit(length);
+
+            encoder.reset();
+            while (encoder.encode(chars, buffer, true).isOverflow()) {
+                flush();
+            }
+            while (encoder.flush(buffer).isOverflow()) {
+                flush();
+            }
+        }
+
+        void flush() {
+            buffer.flip();
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException ignored) {
+            } finally {
+                buffer.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package _gis.company_search.repository;
+
+import _gis.company_search.entity.GisItemEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface GisItemRepository extends JpaRepository<GisItemEntity, String> {
+}
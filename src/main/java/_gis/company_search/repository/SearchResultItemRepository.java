@@ -0,0 +1,24 @@
+package _gis.company_search.repository;
+
+import _gis.company_search.dto.GisItem;
+import _gis.company_search.entity.SearchResultItemEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SearchResultItemRepository extends JpaRepository<SearchResultItemEntity, SearchResultItemEntity.Key> {
+    @Query("SELECT new _gis.company_search.dto.GisItem(i.id, i.name, i.address) " +
+            "FROM SearchResultItemEntity l JOIN GisItemEntity i ON i.id = l.itemId " +
+            "WHERE l.searchResultId = :searchResultId ORDER BY l.rank")
+    List<GisItem> findItems(@Param("searchResultId") Long searchResultId);
+
+    @Query("SELECT l.searchResultId, i.id, i.name, i.address " +
+            "FROM SearchResultItemEntity l JOIN GisItemEntity i ON i.id = l.itemId " +
+            "WHERE l.searchResultId IN :searchResultIds ORDER BY l.searchResultId, l.rank")
+    List<Object[]> findItemRows(@Param("searchResultIds") Collection<Long> searchResultIds);
+}
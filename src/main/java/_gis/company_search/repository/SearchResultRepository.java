@@ -1,32 +1,66 @@
 package _gis.company_search.repository;
 
+import _gis.company_search.dto.SearchResultSummaryDto;
 import _gis.company_search.entity.SearchResultEntity;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface SearchResultRepository extends JpaRepository<SearchResultEntity, Long>{
+    String SUMMARY = "new _gis.company_search.dto.SearchResultSummaryDto(" +
+            "s.id, s.user.id, s.city, s.query, s.createdAt, s.resultsCount)";
+
     @Query("SELECT s FROM SearchResultEntity s JOIN FETCH s.user WHERE s.user.id = :userId")
     List<SearchResultEntity> findByUserId(@Param("userId") Long userId);
 
-    @Query("SELECT s FROM SearchResultEntity s JOIN FETCH s.user WHERE s.user.id = :userId ORDER BY s.createdAt DESC")
-    List<SearchResultEntity> findByUserIdOrderByCreatedAtDesc(@Param("userId") Long userId);
-
     @Query("SELECT s FROM SearchResultEntity s LEFT JOIN FETCH s.user WHERE s.id = :id")
     Optional<SearchResultEntity> findByIdWithUser(@Param("id") Long id);
 
-    @Query("SELECT s FROM SearchResultEntity s JOIN FETCH s.user WHERE s.user.id = :userId " +
+    @Query("SELECT " + SUMMARY + " FROM SearchResultEntity s WHERE s.user.id = :userId " +
             "AND (:city IS NULL OR s.city = :city) " +
             "AND (:query IS NULL OR s.query LIKE %:query%) " +
-            "ORDER BY s.createdAt DESC")
-    List<SearchResultEntity> findByUserIdWithFilters(
+            "ORDER BY s.createdAt DESC, s.id DESC")
+    List<SearchResultSummaryDto> findHistoryPage(
             @Param("userId") Long userId,
             @Param("city") String city,
-            @Param("query") String query
+            @Param("query") String query,
+            Limit limit
+    );
+
+    @Query("SELECT " + SUMMARY + " FROM SearchResultEntity s WHERE s.user.id = :userId " +
+            "AND (:city IS NULL OR s.city = :city) " +
+            "AND (:query IS NULL OR s.query LIKE %:query%) " +
+            "AND (s.createdAt < :createdAt OR (s.createdAt = :createdAt AND s.id < :id)) " +
+            "ORDER BY s.createdAt DESC, s.id DESC")
+    List<SearchResultSummaryDto> findHistoryPageAfter(
+            @Param("userId") Long userId,
+            @Param("city") String city,
+            @Param("query") String query,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Limit limit
+    );
+
+    @Query("SELECT s FROM SearchResultEntity s WHERE s.city = :city AND s.query = :query " +
+            "ORDER BY s.createdAt DESC, s.id DESC")
+    List<SearchResultEntity> findLatest(@Param("city") String city, @Param("query") String query, Limit limit);
+
+    @Query("SELECT s FROM SearchResultEntity s WHERE s.user.id = :userId AND s.id < :beforeId ORDER BY s.id DESC")
+    List<SearchResultEntity> findIndexBatch(@Param("userId") Long userId, @Param("beforeId") Long beforeId, Limit limit);
+
+    @Query("SELECT " + SUMMARY + " FROM SearchResultEntity s WHERE s.user.id = :userId " +
+            "AND s.id IN (SELECT l.searchResultId FROM SearchResultItemEntity l WHERE l.itemId = :itemId) " +
+            "ORDER BY s.createdAt DESC, s.id DESC")
+    List<SearchResultSummaryDto> findByItem(
+            @Param("userId") Long userId,
+            @Param("itemId") String itemId,
+            Limit limit
     );
 }
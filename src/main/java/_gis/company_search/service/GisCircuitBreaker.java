@@ -0,0 +1,213 @@
+package _gis.company_search.service;
+
+import _gis.company_search.dto.CircuitBreakerStats;
+import _gis.company_search.exception.GisCircuitOpenException;
+import _gis.company_search.exception.GisRateLimitedException;
+import _gis.company_search.logging.AsyncLogger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker around the 2GIS client.
+ * <p>
+ * Outcomes of the last {@code window-size} calls are kept in a ring. Once at least
+ * {@code minimum-calls} have been seen and the share of transient failures (connection errors,
+ * 429, 5xx) reaches the threshold, the breaker opens and every call fails immediately with
+ * {@link GisCircuitOpenException}. After {@code open-duration} it lets {@code half-open-calls}
+ * probes through: if all of them succeed it closes again, a single failure reopens it. Calls
+ * rejected by the local rate limiter never reached 2GIS and are not counted.
+ */
+@Component
+public class GisCircuitBreaker {
+    private static final long REJECTED = -1;
+
+    private final boolean enabled;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final AsyncLogger logger;
+
+    private final boolean[] window;
+    private int windowCount;
+    private int windowNext;
+    private int windowFailures;
+
+    private State state = State.CLOSED;
+    private long generation;
+    private long openedAt;
+    private int halfOpenAdmitted;
+    private int halfOpenSucceeded;
+
+    private long rejected;
+    private long opened;
+    private long halfOpened;
+    private long closed;
+
+    public GisCircuitBreaker(
+            @Value("${dgis.breaker.enabled:true}") boolean enabled,
+            @Value("${dgis.breaker.window-size:20}") int windowSize,
+            @Value("${dgis.breaker.minimum-calls:10}") int minimumCalls,
+            @Value("${dgis.breaker.failure-rate-threshold:50}") int failureRateThreshold,
+            @Value("${dgis.breaker.open-duration:PT30S}") Duration openDuration,
+            @Value("${dgis.breaker.half-open-calls:3}") int halfOpenCalls,
+            AsyncLogger logger
+    ) {
+        this.enabled = enabled;
+        this.window = new boolean[Math.max(1, windowSize)];
+        this.minimumCalls = Math.min(window.length, Math.max(1, minimumCalls));
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+        this.logger = logger;
+    }
+
+    public <T> Mono<T> execute(Supplier<Mono<T>> call) {
+        if (!enabled) {
+            return Mono.defer(call);
+        }
+        return Mono.defer(() -> {
+            long ticket = acquire();
+            if (ticket == REJECTED) {
+                return Mono.error(new GisCircuitOpenException());
+            }
+            return Mono.defer(call)
+                    .doOnSuccess(value -> record(ticket, Outcome.SUCCESS))
+                    .doOnError(error -> record(ticket, outcomeOf(error)))
+                    .doOnCancel(() -> record(ticket, Outcome.IGNORED));
+        });
+    }
+
+    public synchronized CircuitBreakerStats getStats() {
+        return new CircuitBreakerStats(
+                enabled,
+                state.name(),
+                windowCount == 0 ? 0 : windowFailures * 100 / windowCount,
+                windowCount,
+                rejected,
+                opened,
+                halfOpened,
+                closed
+        );
+    }
+
+    private long acquire() {
+        State transition = null;
+        long ticket;
+        synchronized (this) {
+            if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+                transition = moveTo(State.HALF_OPEN);
+            }
+            switch (state) {
+                case CLOSED -> ticket = generation;
+                case HALF_OPEN -> {
+                    if (halfOpenAdmitted < halfOpenCalls) {
+                        halfOpenAdmitted++;
+                        ticket = generation;
+                    } else {
+                        rejected++;
+                        ticket = REJECTED;
+                    }
+                }
+                default -> {
+                    rejected++;
+                    ticket = REJECTED;
+                }
+            }
+        }
+        logTransition(transition);
+        return ticket;
+    }
+
+    private void record(long ticket, Outcome outcome) {
+        State transition = null;
+        synchronized (this) {
+            if (ticket != generation) {
+                return;
+            }
+            if (state == State.HALF_OPEN) {
+                switch (outcome) {
+                    case FAILURE -> transition = moveTo(State.OPEN);
+                    case SUCCESS -> {
+                        if (++halfOpenSucceeded >= halfOpenCalls) {
+                            transition = moveTo(State.CLOSED);
+                        }
+                    }
+                    case IGNORED -> halfOpenAdmitted--;
+                }
+            } else if (state == State.CLOSED && outcome != Outcome.IGNORED) {
+                remember(outcome == Outcome.FAILURE);
+                if (windowCount >= minimumCalls && windowFailures * 100 >= failureRateThreshold * windowCount) {
+                    transition = moveTo(State.OPEN);
+                }
+            }
+        }
+        logTransition(transition);
+    }
+
+    private void remember(boolean failure) {
+        if (windowCount == window.length) {
+            if (window[windowNext]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowNext] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowNext = (windowNext + 1) % window.length;
+    }
+
+    private State moveTo(State target) {
+        state = target;
+        generation++;
+        halfOpenAdmitted = 0;
+        halfOpenSucceeded = 0;
+        switch (target) {
+            case OPEN -> {
+                openedAt = System.nanoTime();
+                opened++;
+            }
+            case HALF_OPEN -> halfOpened++;
+            case CLOSED -> {
+                windowCount = 0;
+                windowNext = 0;
+                windowFailures = 0;
+                closed++;
+            }
+        }
+        return target;
+    }
+
+    private void logTransition(State transition) {
+        if (transition == null) {
+            return;
+        }
+        switch (transition) {
+            case OPEN -> logger.warn("Circuit breaker 2GIS открыт, запросы к API приостановлены");
+            case HALF_OPEN -> logger.info("Circuit breaker 2GIS в полуоткрытом состоянии, пробные запросы: {}", halfOpenCalls);
+            case CLOSED -> logger.info("Circuit breaker 2GIS закрыт, запросы к API возобновлены");
+        }
+    }
+
+    private static Outcome outcomeOf(Throwable error) {
+        if (error instanceof GisRateLimitedException) {
+            return Outcome.IGNORED;
+        }
+        return UpstreamErrors.isTransient(error) ? Outcome.FAILURE : Outcome.SUCCESS;
+    }
+
+    private enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private enum Outcome {
+        SUCCESS, FAILURE, IGNORED
+    }
+}
@@ -0,0 +1,123 @@
+package _gis.company_search.service;
+
+import _gis.company_search.dto.GisItem;
+import _gis.company_search.entity.GisItemEntity;
+import _gis.company_search.entity.SearchResultItemEntity;
+import _gis.company_search.repository.GisItemRepository;
+import _gis.company_search.repository.SearchResultItemRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Normalized storage of search items: every 2GIS item is kept once in {@code gis_items} and a
+ * search result only records which item ids it returned and in what order.
+ * <p>
+ * Items are upserted by id. A CRC32C of name and address detects changes, so an item that shows up
+ * again unchanged costs a primary-key lookup and nothing else. Items without a 2GIS id are keyed by
+ * that hash instead.
+ */
+@Component
+public class GisItemStore {
+    private static final String HASH_KEY_PREFIX = "~";
+
+    private final GisItemRepository gisItemRepository;
+    private final SearchResultItemRepository searchResultItemRepository;
+
+    public GisItemStore(GisItemRepository gisItemRepository, SearchResultItemRepository searchResultItemRepository) {
+        this.gisItemRepository = gisItemRepository;
+        this.searchResultItemRepository = searchResultItemRepository;
+    }
+
+    @Transactional
+    public void store(Long searchResultId, List<GisItem> items) {
+        storeAll(Map.of(searchResultId, items));
+    }
+
+    @Transactional
+    public void storeAll(Map<Long, List<GisItem>> itemsBySearchResult) {
+        Map<String, GisItem> unique = new LinkedHashMap<>();
+        Map<String, Long> hashes = new HashMap<>();
+        List<SearchResultItemEntity> links = new ArrayList<>();
+
+        for (Map.Entry<Long, List<GisItem>> entry : itemsBySearchResult.entrySet()) {
+            int rank = 0;
+            for (GisItem item : entry.getValue()) {
+                long hash = contentHash(item);
+                String key = key(item, hash);
+                unique.putIfAbsent(key, item);
+                hashes.putIfAbsent(key, hash);
+                links.add(new SearchResultItemEntity(entry.getKey(), rank++, key));
+            }
+        }
+        if (links.isEmpty()) {
+            return;
+        }
+
+        Map<String, GisItemEntity> existing = new HashMap<>();
+        for (GisItemEntity entity : gisItemRepository.findAllById(unique.keySet())) {
+            existing.put(entity.getId(), entity);
+        }
+
+        List<GisItemEntity> inserts = new ArrayList<>();
+        for (Map.Entry<String, GisItem> entry : unique.entrySet()) {
+            GisItem item = entry.getValue();
+            long hash = hashes.get(entry.getKey());
+            GisItemEntity stored = existing.get(entry.getKey());
+            if (stored == null) {
+                inserts.add(new GisItemEntity(entry.getKey(), orEmpty(item.getName()), orEmpty(item.getAddress()), hash));
+            } else if (stored.getContentHash() != hash) {
+                stored.update(orEmpty(item.getName()), orEmpty(item.getAddress()), hash);
+            }
+        }
+
+        gisItemRepository.saveAll(inserts);
+        searchResultItemRepository.saveAll(links);
+    }
+
+    @Transactional(readOnly = true)
+    public List<GisItem> load(Long searchResultId) {
+        return searchResultItemRepository.findItems(searchResultId);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Long, List<GisItem>> loadAll(Collection<Long> searchResultIds) {
+        Map<Long, List<GisItem>> items = new HashMap<>();
+        if (searchResultIds.isEmpty()) {
+            return items;
+        }
+        for (Object[] row : searchResultItemRepository.findItemRows(searchResultIds)) {
+            items.computeIfAbsent((Long) row[0], id -> new ArrayList<>())
+                    .add(new GisItem((String) row[1], (String) row[2], (String) row[3]));
+        }
+        return items;
+    }
+
+    static long contentHash(GisItem item) {
+        CRC32C crc = new CRC32C();
+        crc.update(orEmpty(item.getName()).getBytes(StandardCharsets.UTF_8));
+        crc.update(0);
+        crc.update(orEmpty(item.getAddress()).getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    private static String key(GisItem item, long hash) {
+        String id = item.getId();
+        if (id == null || id.isBlank() || id.length() > GisItemEntity.ID_MAX_LENGTH) {
+            return HASH_KEY_PREFIX + Long.toHexString(hash);
+        }
+        return id;
+    }
+
+    private static String orEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
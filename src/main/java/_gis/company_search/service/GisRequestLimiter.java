@@ -0,0 +1,268 @@
+package _gis.company_search.service;
+
+import _gis.company_search.dto.RateLimiterStats;
+import _gis.company_search.exception.DoubleGisApiException;
+import _gis.company_search.exception.GisRateLimitedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Admission control in front of the 2GIS client: a token bucket caps the request rate and an AIMD
+ * concurrency limit follows what the upstream can actually take.
+ * <p>
+ * Every call needs a token and a free concurrency slot. Calls that can't get both wait in a FIFO
+ * queue for at most {@code max-wait}; when the queue is full they fail right away with
+ * {@link GisRateLimitedException}. A call that completes within the latency threshold raises the
+ * limit by {@code 1/limit} (about one slot per round trip); a slow call shrinks it by 10% and a
+ * 429/503 from 2GIS halves it and empties the bucket.
+ */
+@Component
+public class GisRequestLimiter {
+    private static final double SLOW_BACKOFF = 0.9;
+    private static final double THROTTLE_BACKOFF = 0.5;
+
+    private final boolean enabled;
+    private final double tokensPerNano;
+    private final double burst;
+    private final int minConcurrency;
+    private final int maxConcurrency;
+    private final long latencyThresholdNanos;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+    private final Scheduler timer = Schedulers.parallel();
+
+    private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+    private double tokens;
+    private long refilledAt;
+    private double limit;
+    private int inFlight;
+    private boolean refillScheduled;
+
+    private long granted;
+    private long rejected;
+    private long timedOut;
+    private long throttled;
+
+    public GisRequestLimiter(
+            @Value("${dgis.limiter.enabled:true}") boolean enabled,
+            @Value("${dgis.limiter.rate:20}") double ratePerSecond,
+            @Value("${dgis.limiter.burst:20}") int burst,
+            @Value("${dgis.limiter.initial-concurrency:10}") int initialConcurrency,
+            @Value("${dgis.limiter.min-concurrency:1}") int minConcurrency,
+            @Value("${dgis.limiter.max-concurrency:64}") int maxConcurrency,
+            @Value("${dgis.limiter.latency-threshold:PT1S}") Duration latencyThreshold,
+            @Value("${dgis.limiter.max-queue:1000}") int maxQueue,
+            @Value("${dgis.limiter.max-wait:PT5S}") Duration maxWait
+    ) {
+        this.enabled = enabled;
+        this.tokensPerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = Math.max(1, burst);
+        this.minConcurrency = Math.max(1, minConcurrency);
+        this.maxConcurrency = Math.max(this.minConcurrency, maxConcurrency);
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.maxQueue = maxQueue;
+        this.maxWaitNanos = maxWait.toNanos();
+
+        this.tokens = this.burst;
+        this.refilledAt = System.nanoTime();
+        this.limit = Math.min(this.maxConcurrency, Math.max(this.minConcurrency, initialConcurrency));
+    }
+
+    public <T> Mono<T> execute(Supplier<Mono<T>> call) {
+        if (!enabled) {
+            return Mono.defer(call);
+        }
+        return Mono.usingWhen(
+                acquire(),
+                permit -> Mono.defer(call),
+                permit -> Mono.fromRunnable(() -> release(permit, Outcome.SUCCESS)),
+                (permit, error) -> Mono.fromRunnable(() -> release(permit, outcomeOf(error))),
+                permit -> Mono.fromRunnable(() -> release(permit, Outcome.CANCELLED))
+        );
+    }
+
+    public synchronized RateLimiterStats getStats() {
+        return new RateLimiterStats(enabled, (int) limit, inFlight, waiters.size(), granted, rejected, timedOut, throttled);
+    }
+
+    private Mono<Permit> acquire() {
+        return Mono.create(sink -> {
+            Waiter waiter = new Waiter(sink);
+            sink.onCancel(() -> cancel(waiter));
+
+            boolean admitted = false;
+            boolean queueFull = false;
+            synchronized (this) {
+                refill(System.nanoTime());
+                if (waiters.isEmpty() && canAdmit()) {
+                    admit(waiter);
+                    admitted = true;
+                } else if (waiters.size() >= maxQueue) {
+                    rejected++;
+                    queueFull = true;
+                } else {
+                    waiters.add(waiter);
+                }
+            }
+
+            if (admitted) {
+                sink.success(waiter.permit);
+            } else if (queueFull) {
+                sink.error(new GisRateLimitedException());
+            } else {
+                waiter.timeout = timer.schedule(() -> expire(waiter), maxWaitNanos, TimeUnit.NANOSECONDS);
+                drain();
+            }
+        });
+    }
+
+    private void drain() {
+        List<Waiter> admitted = new ArrayList<>();
+        synchronized (this) {
+            refill(System.nanoTime());
+            while (!waiters.isEmpty() && canAdmit()) {
+                Waiter waiter = waiters.poll();
+                admit(waiter);
+                admitted.add(waiter);
+            }
+            if (!waiters.isEmpty() && inFlight < (int) limit && !refillScheduled) {
+                refillScheduled = true;
+                long delay = (long) Math.ceil((1 - tokens) / tokensPerNano);
+                timer.schedule(this::onRefill, Math.max(1, delay), TimeUnit.NANOSECONDS);
+            }
+        }
+
+        for (Waiter waiter : admitted) {
+            Disposable timeout = waiter.timeout;
+            if (timeout != null) {
+                timeout.dispose();
+            }
+            waiter.sink.success(waiter.permit);
+        }
+    }
+
+    private void onRefill() {
+        synchronized (this) {
+            refillScheduled = false;
+        }
+        drain();
+    }
+
+    private void expire(Waiter waiter) {
+        synchronized (this) {
+            if (waiter.state != WaiterState.WAITING) {
+                return;
+            }
+            waiters.remove(waiter);
+            waiter.state = WaiterState.DONE;
+            timedOut++;
+        }
+        waiter.sink.error(new GisRateLimitedException());
+    }
+
+    private void cancel(Waiter waiter) {
+        synchronized (this) {
+            if (waiter.state == WaiterState.WAITING) {
+                waiters.remove(waiter);
+                waiter.state = WaiterState.DONE;
+                return;
+            }
+        }
+        if (waiter.permit != null) {
+            release(waiter.permit, Outcome.CANCELLED);
+        }
+    }
+
+    private void release(Permit permit, Outcome outcome) {
+        if (!permit.released.compareAndSet(false, true)) {
+            return;
+        }
+        long latency = System.nanoTime() - permit.admittedAt;
+
+        synchronized (this) {
+            inFlight--;
+            switch (outcome) {
+                case THROTTLED -> {
+                    throttled++;
+                    limit = Math.max(minConcurrency, limit * THROTTLE_BACKOFF);
+                    tokens = 0;
+                }
+                case SUCCESS -> {
+                    if (latency <= latencyThresholdNanos) {
+                        limit = Math.min(maxConcurrency, limit + 1 / limit);
+                    } else {
+                        limit = Math.max(minConcurrency, limit * SLOW_BACKOFF);
+                    }
+                }
+                case FAILURE, CANCELLED -> {
+                }
+            }
+        }
+        drain();
+    }
+
+    private boolean canAdmit() {
+        return inFlight < (int) limit && tokens >= 1;
+    }
+
+    private void admit(Waiter waiter) {
+        tokens -= 1;
+        inFlight++;
+        granted++;
+        waiter.state = WaiterState.ADMITTED;
+        waiter.permit = new Permit(System.nanoTime());
+    }
+
+    private void refill(long now) {
+        tokens = Math.min(burst, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+    }
+
+    private static Outcome outcomeOf(Throwable error) {
+        if (error instanceof DoubleGisApiException apiError && apiError.isThrottled()) {
+            return Outcome.THROTTLED;
+        }
+        return Outcome.FAILURE;
+    }
+
+    private enum Outcome {
+        SUCCESS, FAILURE, THROTTLED, CANCELLED
+    }
+
+    private enum WaiterState {
+        WAITING, ADMITTED, DONE
+    }
+
+    private static final class Waiter {
+        private final MonoSink<Permit> sink;
+        private WaiterState state = WaiterState.WAITING;
+        private Permit permit;
+        private volatile Disposable timeout;
+
+        Waiter(MonoSink<Permit> sink) {
+            this.sink = sink;
+        }
+    }
+
+    private static final class Permit {
+        private final long admittedAt;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Permit(long admittedAt) {
+            this.admittedAt = admittedAt;
+        }
+    }
+}
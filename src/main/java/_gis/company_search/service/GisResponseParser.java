@@ -0,0 +1,237 @@
+package _gis.company_search.service;
+
+import _gis.company_search.dto.GisItem;
+import _gis.company_search.dto.GisSearchResponse;
+import _gis.company_search.exception.ResponseParseException;
+import _gis.company_search.logging.AsyncLogger;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Extracts {@code result.items[*].{id, name, address_name}} from a 2GIS {@code /items} response.
+ * <p>
+ * In streaming mode the body is fed chunk by chunk into Jackson's non-blocking parser and only the
+ * three item fields are ever materialized; everything else is tokenized and dropped. Tree mode joins
+ * the body and walks a {@link JsonNode}, as the service originally did.
+ * <p>
+ * Time spent parsing, summed over all chunks in streaming mode, goes to {@link PipelineMetrics#PARSE};
+ * waiting for the network in between is not counted.
+ */
+@Component
+public class GisResponseParser {
+    private final ObjectMapper mapper;
+    private final JsonFactory jsonFactory;
+    private final AsyncLogger logger;
+    private final PipelineMetrics metrics;
+    private final boolean streaming;
+
+    public GisResponseParser(
+            ObjectMapper mapper,
+            AsyncLogger logger,
+            PipelineMetrics metrics,
+            @Value("${dgis.parser.streaming:true}") boolean streaming
+    ) {
+        this.mapper = mapper;
+        this.jsonFactory = mapper.getFactory();
+        this.logger = logger;
+        this.metrics = metrics;
+        this.streaming = streaming;
+    }
+
+    public Mono<GisSearchResponse> parse(Flux<DataBuffer> body) {
+        return streaming ? parseStreaming(body) : parseTree(body);
+    }
+
+    private Mono<GisSearchResponse> parseStreaming(Flux<DataBuffer> body) {
+        return Mono.defer(() -> {
+            ItemsReader reader;
+            try {
+                reader = new ItemsReader(jsonFactory.createNonBlockingByteBufferParser());
+            } catch (IOException e) {
+                return Mono.error(new ResponseParseException(e));
+            }
+
+            // reduce rather than doOnNext + then: then() hands every element to the discard hook, and
+            // the WebFlux response encoder installs one that releases DataBuffers a second time.
+            return body
+                    .reduce(reader, (current, buffer) -> {
+                        try {
+                            current.feed(buffer);
+                        } finally {
+                            DataBufferUtils.release(buffer);
+                        }
+                        return current;
+                    })
+                    .map(current -> {
+                        try {
+                            return current.finish();
+                        } finally {
+                            metrics.recordParse("streaming", current.parseNanos);
+                        }
+                    });
+        });
+    }
+
+    private Mono<GisSearchResponse> parseTree(Flux<DataBuffer> body) {
+        return DataBufferUtils.join(body)
+                .map(buffer -> {
+                    long start = System.nanoTime();
+                    try (InputStream in = buffer.asInputStream(true)) {
+                        JsonNode root = mapper.readTree(in);
+
+                        logger.debug(() -> "JSON распарсен. Структура корня: " + root.toString());
+
+                        List<GisItem> gisItems = new ArrayList<>();
+                        for (JsonNode item : root.path("result").path("items")) {
+                            String itemName = item.path("name").asText();
+                            logger.debug("Найден элемент: {}", itemName);
+                            String itemValue = item.path("address_name").asText();
+                            String itemId = item.path("id").asText();
+                            gisItems.add(new GisItem(itemId, itemName, itemValue));
+                        }
+                        return new GisSearchResponse(gisItems);
+                    } catch (IOException e) {
+                        throw new ResponseParseException(e);
+                    } finally {
+                        metrics.recordParse("tree", System.nanoTime() - start);
+                    }
+                })
+                .defaultIfEmpty(new GisSearchResponse());
+    }
+
+    private static final class ItemsReader {
+        private static final int ROOT = 0;
+        private static final int IN_RESULT = 1;
+        private static final int IN_ITEMS = 2;
+        private static final int IN_ITEM = 3;
+
+        private static final int RESULT_DEPTH = 2;
+        private static final int ITEMS_DEPTH = 3;
+        private static final int ITEM_DEPTH = 4;
+
+        private final JsonParser parser;
+        private final ByteBufferFeeder feeder;
+        private final List<GisItem> items = new ArrayList<>();
+
+        private int state = ROOT;
+        private int depth;
+        private String field;
+        private String id;
+        private String name;
+        private String address;
+        private long parseNanos;
+
+        ItemsReader(JsonParser parser) {
+            this.parser = parser;
+            this.feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+        }
+
+        void feed(DataBuffer buffer) {
+            long start = System.nanoTime();
+            try (DataBuffer.ByteBufferIterator chunks = buffer.readableByteBuffers()) {
+                while (chunks.hasNext()) {
+                    ByteBuffer chunk = chunks.next();
+                    feeder.feedInput(chunk);
+                    drain();
+                }
+            } catch (IOException e) {
+                throw new ResponseParseException(e);
+            } finally {
+                parseNanos += System.nanoTime() - start;
+            }
+        }
+
+        GisSearchResponse finish() {
+            long start = System.nanoTime();
+            try {
+                feeder.endOfInput();
+                drain();
+                if (depth != 0) {
+                    throw new JsonParseException(parser, "Unexpected end of 2Gis response");
+                }
+                parser.close();
+            } catch (IOException e) {
+                throw new ResponseParseException(e);
+            } finally {
+                parseNanos += System.nanoTime() - start;
+            }
+            return new GisSearchResponse(items);
+        }
+
+        private void drain() throws IOException {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                switch (token) {
+                    case FIELD_NAME -> field = parser.currentName();
+                    case START_OBJECT -> {
+                        depth++;
+                        if (state == ROOT && depth == RESULT_DEPTH && "result".equals(field)) {
+                            state = IN_RESULT;
+                        } else if (state == IN_ITEMS && depth == ITEM_DEPTH) {
+                            state = IN_ITEM;
+                            id = null;
+                            name = null;
+                            address = null;
+                        }
+                        field = null;
+                    }
+                    case START_ARRAY -> {
+                        depth++;
+                        if (state == IN_RESULT && depth == ITEMS_DEPTH && "items".equals(field)) {
+                            state = IN_ITEMS;
+                        }
+                        field = null;
+                    }
+                    case END_OBJECT -> {
+                        if (state == IN_ITEM && depth == ITEM_DEPTH) {
+                            items.add(new GisItem(orEmpty(id), orEmpty(name), orEmpty(address)));
+                            state = IN_ITEMS;
+                        } else if (state == IN_RESULT && depth == RESULT_DEPTH) {
+                            state = ROOT;
+                        }
+                        depth--;
+                    }
+                    case END_ARRAY -> {
+                        if (state == IN_ITEMS && depth == ITEMS_DEPTH) {
+                            state = IN_RESULT;
+                        }
+                        depth--;
+                    }
+                    default -> {
+                        if (state == IN_ITEM && depth == ITEM_DEPTH && field != null) {
+                            switch (field) {
+                                case "id" -> id = parser.getText();
+                                case "name" -> name = parser.getText();
+                                case "address_name" -> address = parser.getText();
+                                default -> {
+                                }
+                            }
+                        }
+                        field = null;
+                    }
+                }
+            }
+        }
+
+        private static String orEmpty(String value) {
+            return value != null ? value : "";
+        }
+    }
+}
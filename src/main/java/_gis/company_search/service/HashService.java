@@ -2,28 +2,148 @@ package _gis.company_search.service;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
 import java.util.Base64;
 
+/**
+ * Password hashing: HMAC-SHA256 keyed by {@code hashKey}, Base64-encoded, stored with an
+ * {@code h1$} prefix.
+ * <p>
+ * Hashes written before the prefix existed are {@code Base64(SHA-256(password + hashKey))};
+ * {@link #matches} still accepts them and {@link #needsRehash} tells the caller to replace them.
+ * Every thread keeps its own {@link Mac}, digest, encoder and buffers, so hashing a password does no
+ * provider lookup and, on the verify path, allocates nothing beyond what the JCA does internally.
+ */
 @Service
 public class HashService {
-    private final String hashKey;
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String PREFIX = "h1$";
+    private static final int HASH_LENGTH = 32;
+    private static final int ENCODED_LENGTH = 44;
+
+    private final SecretKeySpec key;
+    private final byte[] legacySalt;
+    private final ThreadLocal<State> states;
 
     HashService(
             @Value("${hashKey}") String hashKey
     ){
-        this.hashKey = hashKey;
+        this.key = new SecretKeySpec(hashKey.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.legacySalt = hashKey.getBytes(StandardCharsets.UTF_8);
+        this.states = ThreadLocal.withInitial(this::newState);
+        states.get();
+    }
+
+    public String hashString(String input) {
+        State state = states.get();
+        state.hmac(input);
+        return PREFIX + new String(state.encoded, 0, ENCODED_LENGTH, StandardCharsets.ISO_8859_1);
+    }
+
+    public boolean matches(String input, String stored) {
+        if (stored == null) {
+            return false;
+        }
+        State state = states.get();
+        boolean current = stored.startsWith(PREFIX);
+        if (current) {
+            state.hmac(input);
+        } else {
+            state.legacy(input, legacySalt);
+        }
+        return constantTimeEquals(state.encoded, stored, current ? PREFIX.length() : 0);
     }
 
+    public boolean needsRehash(String stored) {
+        return stored == null || !stored.startsWith(PREFIX);
+    }
+
+    private static boolean constantTimeEquals(byte[] expected, String stored, int offset) {
+        int diff = (stored.length() - offset) ^ ENCODED_LENGTH;
+        for (int i = 0; i < ENCODED_LENGTH; i++) {
+            int at = offset + i;
+            char actual = at < stored.length() ? stored.charAt(at) : 0;
+            diff |= actual ^ expected[i];
+        }
+        return diff == 0;
+    }
+
+    private State newState() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return new State(mac, MessageDigest.getInstance("SHA-256"));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Password hashing is not available", e);
+        }
+    }
+
+    private static final class State {
+        private final Mac mac;
+        private final MessageDigest digest;
+        // REPLACE, as String.getBytes does: a lone surrogate becomes '?' instead of ending the input early
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final Base64.Encoder base64 = Base64.getEncoder();
+        private final byte[] hash = new byte[HASH_LENGTH];
+        private final byte[] encoded = new byte[ENCODED_LENGTH];
+        private ByteBuffer input = ByteBuffer.allocate(128);
+
+        State(Mac mac, MessageDigest digest) {
+            this.mac = mac;
+            this.digest = digest;
+        }
 
-    public String hashString(String input) throws NoSuchAlgorithmException {
-        String salt_input = input + hashKey;
+        void hmac(String value) {
+            encode(value);
+            mac.update(input.array(), 0, input.position());
+            try {
+                mac.doFinal(hash, 0);
+            } catch (ShortBufferException e) {
+                throw new IllegalStateException(e);
+            }
+            base64.encode(hash, encoded);
+        }
 
-        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        void legacy(String value, byte[] salt) {
+            encode(value);
+            digest.update(input.array(), 0, input.position());
+            digest.update(salt);
+            try {
+                digest.digest(hash, 0, HASH_LENGTH);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+            base64.encode(hash, encoded);
+        }
 
-        byte[] hashBytes = digest.digest(salt_input.getBytes(StandardCharsets.UTF_8));
-        return Base64.getEncoder().encodeToString(hashBytes);
+        private void encode(String value) {
+            CharBuffer chars = CharBuffer.wrap(value);
+            while (true) {
+                input.clear();
+                encoder.reset();
+                CoderResult result = encoder.encode(chars, input, true);
+                if (!result.isOverflow()) {
+                    result = encoder.flush(input);
+                }
+                if (!result.isOverflow()) {
+                    return;
+                }
+                input = ByteBuffer.allocate(input.capacity() * 2);
+                chars.rewind();
+            }
+        }
     }
 }
@@ -0,0 +1,338 @@
+package _gis.company_search.service;
+
+import _gis.company_search.dto.GisItem;
+import _gis.company_search.dto.HistorySearchResult;
+import _gis.company_search.dto.SearchResultSummaryDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+
+/**
+ * In-memory trigram index over a user's search history: the query string plus the names and
+ * addresses of the stored items.
+ * <p>
+ * A lookup intersects the posting lists of the needle's trigrams and then checks the few remaining
+ * candidates for a real substring match, so the cost depends on the number of matches rather than
+ * on the size of the history. Needles shorter than a trigram fall back to checking every document
+ * of the user. Hits are ranked by where the needle matched (whole query, query, items) and then by
+ * recency.
+ * <p>
+ * Users are indexed on demand: the first search of a user whose history isn't in memory reads it
+ * back through a {@link HistoryLoader}, and new searches are only added to users already held.
+ * The index keeps at most {@code max-docs} searches in total and drops whole users, least recently
+ * used first, to stay under it, so every user it answers for is either complete or, when the
+ * user's own history exceeds the cap, cut to the newest searches and reported as truncated. Memory
+ * is roughly 6-8 bytes per indexed character (the UTF-16 text plus an int posting per trigram), so
+ * a 20-item 2GIS page of about 1.2k characters costs ~8 KB and the default cap of 10 000 searches
+ * about 80 MB.
+ */
+@Component
+public class HistorySearchIndex {
+    private static final int GRAM = 3;
+    private static final char FIELD_SEPARATOR = '\n';
+
+    private static final int SCORE_EXACT_QUERY = 3;
+    private static final int SCORE_QUERY = 2;
+    private static final int SCORE_ITEMS = 1;
+
+    private static final Comparator<Hit> RANKING = Comparator
+            .comparingInt(Hit::score).reversed()
+            .thenComparing(hit -> hit.doc().summary().getCreatedAt(), Comparator.reverseOrder())
+            .thenComparing(hit -> hit.doc().summary().getId(), Comparator.reverseOrder());
+
+    private final ConcurrentHashMap<Long, UserIndex> users = new ConcurrentHashMap<>();
+    private final AtomicInteger indexed = new AtomicInteger();
+    private final AtomicLong clock = new AtomicLong();
+    private final Object evictionLock = new Object();
+    private final int maxDocs;
+
+    public HistorySearchIndex(
+            @Value("${search.history.index.max-docs:10000}") int maxDocs
+    ) {
+        this.maxDocs = Math.max(1, maxDocs);
+    }
+
+    /**
+     * Reads a user's stored searches, newest first, into {@code sink} and returns whether it stopped
+     * at {@code capacity} with older searches left over.
+     */
+    @FunctionalInterface
+    public interface HistoryLoader {
+        boolean load(Long userId, int capacity, BiConsumer<SearchResultSummaryDto, List<GisItem>> sink);
+    }
+
+    public void add(SearchResultSummaryDto summary, List<GisItem> items) {
+        UserIndex index = users.get(summary.getUserId());
+        if (index == null) {
+            return;
+        }
+        if (index.add(doc(summary, items), clock.incrementAndGet())) {
+            indexed.incrementAndGet();
+            trim();
+        }
+    }
+
+    /**
+     * Searches a user held in memory; returns {@code null} when the user's history has to be loaded
+     * first.
+     */
+    public HistorySearchResult search(Long userId, String city, String text, int offset, int limit) {
+        UserIndex index = users.get(userId);
+        if (index == null || !index.loaded) {
+            return null;
+        }
+        return search(index, city, text, offset, limit);
+    }
+
+    /**
+     * Searches a user, reading their history through {@code loader} first when it isn't in memory.
+     */
+    public HistorySearchResult search(
+            Long userId, String city, String text, int offset, int limit, HistoryLoader loader) {
+        UserIndex index = users.computeIfAbsent(userId, id -> new UserIndex());
+        if (!index.loaded) {
+            boolean truncated;
+            try {
+                truncated = loader.load(userId, maxDocs, (summary, items) -> {
+                    if (index.add(doc(summary, items), clock.incrementAndGet())) {
+                        indexed.incrementAndGet();
+                    }
+                });
+            } catch (RuntimeException e) {
+                if (users.remove(userId, index)) {
+                    indexed.addAndGet(-index.evict());
+                }
+                throw e;
+            }
+            index.markLoaded(truncated);
+            trim();
+        }
+        return search(index, city, text, offset, limit);
+    }
+
+    public int size() {
+        return indexed.get();
+    }
+
+    private HistorySearchResult search(UserIndex index, String city, String text, int offset, int limit) {
+        index.lastUsed = clock.incrementAndGet();
+        String needle = normalize(text);
+        if (needle.isEmpty()) {
+            return new HistorySearchResult(List.of(), 0, offset, limit, index.truncated);
+        }
+
+        List<Hit> hits = index.find(needle, city);
+        hits.sort(RANKING);
+
+        int from = Math.min(offset, hits.size());
+        int to = Math.min(from + limit, hits.size());
+        List<SearchResultSummaryDto> page = new ArrayList<>(to - from);
+        for (Hit hit : hits.subList(from, to)) {
+            page.add(hit.doc().summary());
+        }
+        return new HistorySearchResult(page, hits.size(), offset, limit, index.truncated);
+    }
+
+    // whole users go, so what stays is complete; a user still loading is never picked, and a search
+    // already holding an evicted user finishes on it
+    private void trim() {
+        if (indexed.get() <= maxDocs) {
+            return;
+        }
+        synchronized (evictionLock) {
+            while (indexed.get() > maxDocs) {
+                Map.Entry<Long, UserIndex> coldest = null;
+                for (Map.Entry<Long, UserIndex> entry : users.entrySet()) {
+                    UserIndex candidate = entry.getValue();
+                    if (candidate.loaded && (coldest == null || candidate.lastUsed < coldest.getValue().lastUsed)) {
+                        coldest = entry;
+                    }
+                }
+                if (coldest == null) {
+                    return;
+                }
+                if (users.remove(coldest.getKey(), coldest.getValue())) {
+                    indexed.addAndGet(-coldest.getValue().evict());
+                }
+            }
+        }
+    }
+
+    private static Doc doc(SearchResultSummaryDto summary, List<GisItem> items) {
+        StringBuilder text = new StringBuilder(normalize(summary.getQuery()));
+        for (GisItem item : items) {
+            text.append(FIELD_SEPARATOR).append(normalize(item.getName()))
+                    .append(FIELD_SEPARATOR).append(normalize(item.getAddress()));
+        }
+        return new Doc(summary, normalize(summary.getQuery()), text.toString());
+    }
+
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static long gram(String text, int at) {
+        return ((long) text.charAt(at) << 32) | ((long) text.charAt(at + 1) << 16) | text.charAt(at + 2);
+    }
+
+    private record Doc(SearchResultSummaryDto summary, String query, String text) {
+    }
+
+    private record Hit(Doc doc, int score) {
+    }
+
+    private static final class UserIndex {
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final List<Doc> docs = new ArrayList<>();
+        private final Set<Long> ids = new HashSet<>();
+        private final Map<Long, Postings> postings = new HashMap<>();
+        private volatile boolean loaded;
+        private volatile boolean truncated;
+        private volatile long lastUsed;
+        private boolean evicted;
+
+        boolean add(Doc doc, long now) {
+            lock.writeLock().lock();
+            try {
+                if (evicted || !ids.add(doc.summary().getId())) {
+                    return false;
+                }
+                post(doc);
+                lastUsed = now;
+                return true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void markLoaded(boolean truncated) {
+            if (truncated) {
+                this.truncated = true;
+            }
+            loaded = true;
+        }
+
+        int evict() {
+            lock.writeLock().lock();
+            try {
+                evicted = true;
+                return docs.size();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        List<Hit> find(String needle, String city) {
+            lock.readLock().lock();
+            try {
+                List<Hit> hits = new ArrayList<>();
+                if (needle.length() < GRAM) {
+                    for (Doc doc : docs) {
+                        collect(doc, needle, city, hits);
+                    }
+                    return hits;
+                }
+
+                int[] candidates = candidates(needle);
+                for (int ordinal : candidates) {
+                    collect(docs.get(ordinal), needle, city, hits);
+                }
+                return hits;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private void post(Doc doc) {
+            int ordinal = docs.size();
+            docs.add(doc);
+            String text = doc.text();
+            for (int i = 0; i + GRAM <= text.length(); i++) {
+                postings.computeIfAbsent(gram(text, i), key -> new Postings()).add(ordinal);
+            }
+        }
+
+        private int[] candidates(String needle) {
+            List<Postings> lists = new ArrayList<>();
+            for (int i = 0; i + GRAM <= needle.length(); i++) {
+                Postings list = postings.get(gram(needle, i));
+                if (list == null) {
+                    return new int[0];
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(Postings::size));
+
+            int[] result = Arrays.copyOf(lists.get(0).ordinals, lists.get(0).size);
+            int length = result.length;
+            for (int l = 1; l < lists.size() && length > 0; l++) {
+                length = intersect(result, length, lists.get(l));
+            }
+            return Arrays.copyOf(result, length);
+        }
+
+        private static int intersect(int[] result, int length, Postings other) {
+            int kept = 0;
+            int j = 0;
+            for (int i = 0; i < length && j < other.size; i++) {
+                while (j < other.size && other.ordinals[j] < result[i]) {
+                    j++;
+                }
+                if (j < other.size && other.ordinals[j] == result[i]) {
+                    result[kept++] = result[i];
+                }
+            }
+            return kept;
+        }
+
+        private static void collect(Doc doc, String needle, String city, List<Hit> hits) {
+            if (city != null && !city.equals(doc.summary().getCity())) {
+                return;
+            }
+            if (doc.query().equals(needle)) {
+                hits.add(new Hit(doc, SCORE_EXACT_QUERY));
+            } else if (doc.query().contains(needle)) {
+                hits.add(new Hit(doc, SCORE_QUERY));
+            } else if (doc.text().contains(needle)) {
+                hits.add(new Hit(doc, SCORE_ITEMS));
+            }
+        }
+    }
+
+    private static final class Postings {
+        private int[] ordinals = new int[4];
+        private int size;
+
+        void add(int ordinal) {
+            if (size > 0 && ordinals[size - 1] == ordinal) {
+                return;
+            }
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            ordinals[size++] = ordinal;
+        }
+
+        int size() {
+            return size;
+        }
+    }
+}
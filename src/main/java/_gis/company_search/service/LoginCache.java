@@ -0,0 +1,104 @@
+package _gis.company_search.service;
+
+import _gis.company_search.dto.LoginCacheStats;
+import _gis.company_search.entity.UserEntity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU cache of email to user (id, name, stored password hash) for the login path, so a
+ * client that logs in again does not cost a database round trip.
+ * <p>
+ * Entries are copies: callers get a detached {@link UserEntity} they may change without touching the
+ * cache. {@link UserService} refreshes or drops an entry whenever it writes the user; the TTL bounds
+ * how long a change made elsewhere (another instance, a manual update) can go unnoticed.
+ */
+@Component
+public class LoginCache {
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final int maxSize;
+    private final Map<String, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public LoginCache(
+            @Value("${auth.login-cache.enabled:true}") boolean enabled,
+            @Value("${auth.login-cache.ttl:PT10M}") Duration ttl,
+            @Value("${auth.login-cache.max-size:10000}") int maxSize
+    ) {
+        this.enabled = enabled;
+        this.ttlNanos = ttl.toNanos();
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > LoginCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public UserEntity get(String email) {
+        if (!enabled || email == null) {
+            return null;
+        }
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(email);
+            if (entry != null && System.nanoTime() - entry.cachedAt >= ttlNanos) {
+                entries.remove(email);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return copy(entry.user);
+    }
+
+    public void put(UserEntity user) {
+        if (!enabled || user.getEmail() == null) {
+            return;
+        }
+        Entry entry = new Entry(copy(user), System.nanoTime());
+        synchronized (entries) {
+            entries.put(user.getEmail(), entry);
+        }
+    }
+
+    public void invalidate(String email) {
+        synchronized (entries) {
+            entries.remove(email);
+        }
+    }
+
+    public LoginCacheStats getStats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new LoginCacheStats(enabled, hits.get(), misses.get(), evictions.get(), size);
+    }
+
+    private static UserEntity copy(UserEntity user) {
+        UserEntity copy = new UserEntity(user.getName(), user.getEmail(), user.getPassword());
+        copy.setId(user.getId());
+        return copy;
+    }
+
+    private record Entry(UserEntity user, long cachedAt) {
+    }
+}
@@ -0,0 +1,99 @@
+package _gis.company_search.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Micrometer timers for the stages of a request: search, the 2GIS call and its parse, reads and
+ * writes of stored search results, and login. Scraped from {@code /actuator/prometheus}.
+ * <p>
+ * Every timer publishes a percentile histogram, so p99 can be aggregated across instances in
+ * Prometheus ({@code histogram_quantile}); {@code management.metrics.distribution.*} properties
+ * still override that per meter. Timed calls are tagged with {@code outcome}
+ * ({@code success}, {@code error}, {@code cancelled}) and the {@code exception} class name.
+ */
+@Component
+public class PipelineMetrics {
+    public static final String SEARCH = "search.requests";
+    public static final String URL_BUILD = "search.url.build";
+    public static final String UPSTREAM = "gis.http.requests";
+    public static final String BODY_SIZE = "gis.response.size";
+    public static final String PARSE = "gis.response.parse";
+    public static final String RESULTS = "search.results";
+    public static final String LOGIN = "auth.login";
+
+    private static final String NONE = "none";
+
+    private final MeterRegistry registry;
+    private final DistributionSummary bodySize;
+
+    public PipelineMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.bodySize = DistributionSummary.builder(BODY_SIZE)
+                .description("Size of 2GIS response bodies")
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    public <T> Mono<T> time(String name, Tags tags, Mono<T> call) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            // a downstream operator may still cancel after the value arrived; only the first signal counts
+            AtomicBoolean recorded = new AtomicBoolean();
+            return call
+                    .doOnSuccess(value -> recordOnce(recorded, name, tags, "success", NONE, start))
+                    .doOnError(error -> recordOnce(recorded, name, tags, "error", error.getClass().getSimpleName(), start))
+                    .doOnCancel(() -> recordOnce(recorded, name, tags, "cancelled", NONE, start));
+        });
+    }
+
+    public <T> Mono<T> timeResults(String operation, Mono<T> call) {
+        return time(RESULTS, Tags.of("operation", operation), call);
+    }
+
+    public void recordUrlBuild(long nanos) {
+        timer(URL_BUILD, Tags.empty()).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param status HTTP status of the 2GIS response, or {@code 0} when none arrived
+     */
+    public void recordUpstream(int status, String outcome, long nanos) {
+        timer(UPSTREAM, Tags.of("status", status > 0 ? String.valueOf(status) : NONE, "outcome", outcome))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordBodySize(long bytes) {
+        bodySize.record(bytes);
+    }
+
+    public void recordParse(String mode, long nanos) {
+        timer(PARSE, Tags.of("mode", mode)).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void recordOnce(AtomicBoolean recorded, String name, Tags tags, String outcome, String exception, long start) {
+        if (recorded.compareAndSet(false, true)) {
+            record(name, tags, outcome, exception, start);
+        }
+    }
+
+    private void record(String name, Tags tags, String outcome, String exception, long start) {
+        timer(name, tags.and("outcome", outcome, "exception", exception))
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer timer(String name, Tags tags) {
+        return Timer.builder(name)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
@@ -0,0 +1,178 @@
+package _gis.company_search.service;
+
+import _gis.company_search.dto.GisSearchResponse;
+import _gis.company_search.dto.SearchCacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * In-memory cache of 2GIS pages with request coalescing: concurrent misses for the same key share
+ * one upstream call.
+ * <p>
+ * An entry is fresh for {@code ttl}. For another {@code stale-ttl} after that it is still served,
+ * flagged as stale, while a single background load refreshes it; a failed refresh leaves the stale
+ * entry in place until the window runs out. The window is off by default, so an expired entry is
+ * a miss; setting it lets callers see data up to {@code ttl + stale-ttl} old.
+ */
+@Component
+public class SearchCache {
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final long staleTtlNanos;
+    private final int maxSize;
+
+    private final Map<Key, Entry> entries;
+    private final ConcurrentHashMap<Key, Mono<GisSearchResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public SearchCache(
+            @Value("${dgis.cache.enabled:true}") boolean enabled,
+            @Value("${dgis.cache.ttl:PT5M}") Duration ttl,
+            @Value("${dgis.cache.max-size:10000}") int maxSize,
+            @Value("${dgis.cache.stale-ttl:PT0S}") Duration staleTtl
+    ) {
+        this.enabled = enabled;
+        this.ttlNanos = ttl.toNanos();
+        this.staleTtlNanos = staleTtl.toNanos();
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > SearchCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public Mono<GisSearchResponse> get(
+            String city,
+            String text,
+            int page,
+            int pageSize,
+            Supplier<Mono<GisSearchResponse>> loader) {
+        if (!enabled) {
+            return Mono.defer(loader);
+        }
+
+        Key key = Key.of(city, text, page, pageSize);
+        return Mono.defer(() -> {
+            Entry cached = lookup(key);
+            if (cached != null) {
+                if (System.nanoTime() - cached.createdAt < ttlNanos) {
+                    hits.incrementAndGet();
+                    return Mono.just(cached.response);
+                }
+                staleHits.incrementAndGet();
+                revalidate(key, loader);
+                return Mono.just(cached.response.asStale());
+            }
+
+            Mono<GisSearchResponse> pending = inFlight.get(key);
+            if (pending != null) {
+                coalesced.incrementAndGet();
+                return pending;
+            }
+
+            Mono<GisSearchResponse> load = load(key, loader);
+            pending = inFlight.putIfAbsent(key, load);
+            if (pending != null) {
+                coalesced.incrementAndGet();
+                return pending;
+            }
+
+            misses.incrementAndGet();
+            return load;
+        });
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public SearchCacheStats getStats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new SearchCacheStats(
+                hits.get(),
+                staleHits.get(),
+                misses.get(),
+                coalesced.get(),
+                evictions.get(),
+                size,
+                inFlight.size()
+        );
+    }
+
+    private void revalidate(Key key, Supplier<Mono<GisSearchResponse>> loader) {
+        Mono<GisSearchResponse> load = load(key, loader);
+        if (inFlight.putIfAbsent(key, load) == null) {
+            load.subscribe(response -> {
+            }, error -> {
+            });
+        }
+    }
+
+    private Mono<GisSearchResponse> load(Key key, Supplier<Mono<GisSearchResponse>> loader) {
+        return Mono.defer(loader)
+                .doOnNext(response -> put(key, response))
+                .doFinally(signal -> inFlight.remove(key))
+                .cache();
+    }
+
+    private Entry lookup(Key key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.createdAt >= ttlNanos + staleTtlNanos) {
+                entries.remove(key);
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    private void put(Key key, GisSearchResponse response) {
+        synchronized (entries) {
+            entries.put(key, new Entry(response, System.nanoTime()));
+        }
+    }
+
+    private record Entry(GisSearchResponse response, long createdAt) {
+    }
+
+    private record Key(String city, String text, int page, int pageSize) {
+        static Key of(String city, String text, int page, int pageSize) {
+            return new Key(normalize(city), normalize(text), page, pageSize);
+        }
+
+        private static String normalize(String value) {
+            if (value == null) {
+                return "";
+            }
+            return value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package _gis.company_search.service;
+
+import _gis.company_search.dto.GisItem;
+import _gis.company_search.dto.GisSearchResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Encodes the items of a {@link GisSearchResponse} for the {@code results_payload} column.
+ * <p>
+ * Layout: one header byte (format version, high bit set when the body is deflated), then the body:
+ * a varint item count followed by {@code id}, {@code name} and {@code address} of every item as
+ * varint-length-prefixed UTF-8. Bodies shorter than the compression threshold are stored raw, since
+ * deflate only adds overhead there. Rows written before the column existed still carry their
+ * payload as JSON text in {@code results_json}; {@link #decodeJson} reads those and rejects text that
+ * doesn't parse, so callers can leave such rows as they are instead of overwriting them.
+ */
+@Component
+public class SearchPayloadCodec {
+    private static final int FORMAT_V1 = 1;
+    private static final int FORMAT_MASK = 0x7F;
+    private static final int FLAG_DEFLATE = 0x80;
+    private static final int MIN_ITEM_BYTES = 3;
+
+    private final ObjectMapper objectMapper;
+    private final boolean compression;
+    private final int compressionThreshold;
+
+    public SearchPayloadCodec(
+            ObjectMapper objectMapper,
+            @Value("${search.payload.compression:true}") boolean compression,
+            @Value("${search.payload.compression-threshold:256}") int compressionThreshold
+    ) {
+        this.objectMapper = objectMapper;
+        this.compression = compression;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    public byte[] encode(GisSearchResponse response) {
+        List<GisItem> items = response.getItems();
+        Output body = new Output(64 + items.size() * 96);
+        body.writeVarint(items.size());
+        for (GisItem item : items) {
+            body.writeString(item.getId());
+            body.writeString(item.getName());
+            body.writeString(item.getAddress());
+        }
+
+        if (compression && body.size() >= compressionThreshold) {
+            byte[] deflated = deflate(body.buffer, body.size());
+            if (deflated.length < body.size()) {
+                return withHeader(FORMAT_V1 | FLAG_DEFLATE, deflated, deflated.length);
+            }
+        }
+        return withHeader(FORMAT_V1, body.buffer, body.size());
+    }
+
+    public GisSearchResponse decode(byte[] payload) {
+        if (payload == null || payload.length == 0) {
+            return new GisSearchResponse();
+        }
+        int header = payload[0] & 0xFF;
+        if ((header & FORMAT_MASK) != FORMAT_V1) {
+            throw new IllegalArgumentException("Unknown search payload format: " + (header & FORMAT_MASK));
+        }
+
+        byte[] body = (header & FLAG_DEFLATE) != 0
+                ? inflate(payload, 1, payload.length - 1)
+                : payload;
+        Input in = new Input(body, body == payload ? 1 : 0);
+
+        int count = in.readVarint();
+        // every item takes at least three empty-string lengths, so a corrupt count can't size the list
+        if (count < 0 || count > in.remaining() / MIN_ITEM_BYTES) {
+            throw new IllegalArgumentException("Corrupted search payload: " + count + " items");
+        }
+        List<GisItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(new GisItem(in.readString(), in.readString(), in.readString()));
+        }
+        return new GisSearchResponse(items);
+    }
+
+    public GisSearchResponse decodeJson(String json) {
+        List<GisItem> items = new ArrayList<>();
+        if (json == null) {
+            return new GisSearchResponse(items);
+        }
+        try {
+            for (JsonNode item : objectMapper.readTree(json).path("items")) {
+                items.add(new GisItem(
+                        item.path("id").asText(),
+                        item.path("name").asText(),
+                        item.path("address").asText()
+                ));
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Corrupted legacy search payload", e);
+        }
+        return new GisSearchResponse(items);
+    }
+
+    private static byte[] withHeader(int header, byte[] body, int length) {
+        byte[] payload = new byte[length + 1];
+        payload[0] = (byte) header;
+        System.arraycopy(body, 0, payload, 1, length);
+        return payload;
+    }
+
+    private static byte[] deflate(byte[] data, int length) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(data, 0, length);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(length / 2 + 16);
+            byte[] chunk = new byte[Math.max(64, Math.min(length, 8192))];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data, int offset, int length) {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(data, offset, length);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(length * 4);
+            byte[] chunk = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(chunk);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("Truncated search payload");
+                }
+                out.write(chunk, 0, n);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupted search payload", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static final class Output {
+        private byte[] buffer;
+        private int size;
+
+        Output(int capacity) {
+            this.buffer = new byte[capacity];
+        }
+
+        int size() {
+            return size;
+        }
+
+        void writeVarint(int value) {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        void writeString(String value) {
+            byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+    }
+
+    private static final class Input {
+        private final byte[] buffer;
+        private int position;
+
+        Input(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        int readVarint() {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                byte b = next();
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in search payload");
+        }
+
+        int remaining() {
+            return buffer.length - position;
+        }
+
+        String readString() {
+            int length = readVarint();
+            if (length < 0 || position + length > buffer.length) {
+                throw new IllegalArgumentException("Truncated search payload");
+            }
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        private byte next() {
+            if (position >= buffer.length) {
+                throw new IllegalArgumentException("Truncated search payload");
+            }
+            return buffer[position++];
+        }
+    }
+}
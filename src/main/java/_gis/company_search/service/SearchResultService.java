@@ -1,90 +1,372 @@
 package _gis.company_search.service;
 
+import _gis.company_search.config.BlockingScheduler;
+import _gis.company_search.dto.GisItem;
 import _gis.company_search.dto.GisSearchResponse;
+import _gis.company_search.dto.HistorySearchResult;
+import _gis.company_search.dto.PendingSearchResult;
+import _gis.company_search.dto.SearchHistoryPage;
 import _gis.company_search.dto.SearchResultDto;
+import _gis.company_search.dto.SearchResultSummaryDto;
 import _gis.company_search.entity.SearchResultEntity;
-import _gis.company_search.entity.UserEntity;
+import _gis.company_search.exception.SearchResultNotFoundException;
+import _gis.company_search.exception.UserNotFoundException;
+import _gis.company_search.logging.AsyncLogger;
 import _gis.company_search.repository.SearchResultRepository;
 import _gis.company_search.repository.UserRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
+import reactor.core.scheduler.Scheduler;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 
 @Service
 public class SearchResultService {
+    private static final int INDEX_LOAD_BATCH_SIZE = 500;
+
     private final SearchResultRepository searchResultRepository;
     private final UserRepository userRepository;
-    private final ObjectMapper objectMapper;
+    private final SearchPayloadCodec payloadCodec;
+    private final HistorySearchIndex searchIndex;
+    private final GisItemStore itemStore;
+    private final TransactionTemplate transactionTemplate;
+    private final Scheduler blockingScheduler;
+    private final PipelineMetrics metrics;
+    private final AsyncLogger logger;
+    private final boolean normalizedItems;
+    private final int defaultLimit;
+    private final int maxLimit;
+    private final int streamPageSize;
 
     public SearchResultService(
             SearchResultRepository searchResultRepository,
             UserRepository userRepository,
-            ObjectMapper objectMapper) {
+            SearchPayloadCodec payloadCodec,
+            HistorySearchIndex searchIndex,
+            GisItemStore itemStore,
+            TransactionTemplate transactionTemplate,
+            BlockingScheduler blockingScheduler,
+            PipelineMetrics metrics,
+            AsyncLogger logger,
+            @Value("${search.payload.normalized:false}") boolean normalizedItems,
+            @Value("${search.history.default-limit:20}") int defaultLimit,
+            @Value("${search.history.max-limit:100}") int maxLimit,
+            @Value("${search.history.stream-page-size:200}") int streamPageSize) {
         this.searchResultRepository = searchResultRepository;
         this.userRepository = userRepository;
-        this.objectMapper = objectMapper;
+        this.payloadCodec = payloadCodec;
+        this.searchIndex = searchIndex;
+        this.itemStore = itemStore;
+        this.transactionTemplate = transactionTemplate;
+        this.blockingScheduler = blockingScheduler.scheduler();
+        this.metrics = metrics;
+        this.logger = logger;
+        this.normalizedItems = normalizedItems;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+        this.streamPageSize = streamPageSize;
     }
 
-    @Transactional
     public Mono<SearchResultEntity> saveSearchResult(
             Long userId,
             String city,
             String query,
             GisSearchResponse response) {
 
-        return Mono.fromCallable(() -> {
-            UserEntity user = userRepository.findById(userId)
-                    .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
+        return metrics.timeResults("save", Mono.fromCallable(() -> {
+            PendingSearchResult pending = new PendingSearchResult(userId, city, query, response);
+            SearchResultEntity saved;
+            try {
+                saved = retryItemConflict(() -> transactionTemplate.execute(status -> insert(pending)));
+            } catch (RowRejectedException e) {
+                if (!userRepository.existsById(userId)) {
+                    throw new UserNotFoundException();
+                }
+                throw e.getCause();
+            }
+            index(saved, userId, response);
+            return saved;
+        }).subscribeOn(blockingScheduler));
+    }
 
-            String resultsJson = objectMapper.writeValueAsString(response);
+    public List<SearchResultEntity> saveSearchResults(List<PendingSearchResult> batch) {
+        List<SearchResultEntity> saved;
+        try {
+            saved = retryItemConflict(() -> transactionTemplate.execute(status -> insertAll(batch)));
+        } catch (RowRejectedException e) {
+            // nothing of the batch was committed; save row by row so one unknown user doesn't sink the rest
+            return saveOneByOne(batch);
+        }
+        for (int i = 0; i < saved.size(); i++) {
+            PendingSearchResult pending = batch.get(i);
+            index(saved.get(i), pending.getUserId(), pending.getResponse());
+        }
+        return saved;
+    }
 
-            SearchResultEntity entity = new SearchResultEntity(
-                    user,
-                    city,
-                    query,
-                    resultsJson,
-                    response.getItems().size()
-            );
+    private List<SearchResultEntity> saveOneByOne(List<PendingSearchResult> batch) {
+        List<SearchResultEntity> saved = new ArrayList<>(batch.size());
+        for (PendingSearchResult pending : batch) {
+            try {
+                SearchResultEntity entity = retryItemConflict(() -> transactionTemplate.execute(status -> insert(pending)));
+                index(entity, pending.getUserId(), pending.getResponse());
+                saved.add(entity);
+            } catch (RowRejectedException ignored) {
+            }
+        }
+        return saved;
+    }
 
-            return searchResultRepository.save(entity);
-        }).subscribeOn(Schedulers.boundedElastic());
+    // the row and its item links commit together, so a failed item store never leaves a row without results
+    private SearchResultEntity insert(PendingSearchResult pending) {
+        SearchResultEntity saved;
+        try {
+            saved = searchResultRepository.saveAndFlush(toEntity(pending));
+        } catch (DataIntegrityViolationException e) {
+            throw new RowRejectedException(e);
+        }
+        if (normalizedItems) {
+            itemStore.storeAll(Map.of(saved.getId(), pending.getResponse().getItems()));
+        }
+        return saved;
     }
 
-    @Transactional(readOnly = true)
-    public Mono<List<SearchResultDto>> getUserSearchHistory(Long userId) {
-        return Mono.fromCallable(() -> {
-            List<SearchResultEntity> entities = searchResultRepository.findByUserIdOrderByCreatedAtDesc(userId);
-            return entities.stream()
-                    .map(entity -> new SearchResultDto(entity, objectMapper))
-                    .collect(Collectors.toList());
-        }).subscribeOn(Schedulers.boundedElastic());
+    private List<SearchResultEntity> insertAll(List<PendingSearchResult> batch) {
+        List<SearchResultEntity> entities = new ArrayList<>(batch.size());
+        for (PendingSearchResult pending : batch) {
+            entities.add(toEntity(pending));
+        }
+
+        List<SearchResultEntity> saved;
+        try {
+            saved = searchResultRepository.saveAllAndFlush(entities);
+        } catch (DataIntegrityViolationException e) {
+            throw new RowRejectedException(e);
+        }
+        if (normalizedItems) {
+            Map<Long, List<GisItem>> items = new LinkedHashMap<>();
+            for (int i = 0; i < saved.size(); i++) {
+                items.put(saved.get(i).getId(), batch.get(i).getResponse().getItems());
+            }
+            itemStore.storeAll(items);
+        }
+        return saved;
     }
 
-    @Transactional(readOnly = true)
-    public Mono<List<SearchResultDto>> getUserSearchHistoryWithFilters(
+    // a concurrent save may insert one of the new items first; the failed transaction is rolled back
+    // and the whole unit runs again, where that item is an update
+    private <T> T retryItemConflict(Supplier<T> unit) {
+        try {
+            return unit.get();
+        } catch (DataIntegrityViolationException e) {
+            if (!normalizedItems) {
+                throw e;
+            }
+            return unit.get();
+        }
+    }
+
+    public Mono<HistorySearchResult> searchUserHistory(
             Long userId,
             String city,
-            String query) {
-        return Mono.fromCallable(() -> {
-            List<SearchResultEntity> entities = searchResultRepository.findByUserIdWithFilters(userId, city, query);
-            return entities.stream()
-                    .map(entity -> new SearchResultDto(entity, objectMapper))
-                    .collect(Collectors.toList());
-        }).subscribeOn(Schedulers.boundedElastic());
+            String text,
+            Integer offset,
+            Integer limit) {
+        int from = offset != null ? Math.max(0, offset) : 0;
+        int size = clampLimit(limit);
+        return metrics.timeResults("history_search", Mono.defer(() -> {
+            HistorySearchResult held = searchIndex.search(userId, city, text, from, size);
+            if (held != null) {
+                return Mono.just(held);
+            }
+            return Mono.fromCallable(() -> searchIndex.search(userId, city, text, from, size, this::loadIndexHistory))
+                    .subscribeOn(blockingScheduler);
+        }));
+    }
+
+    // newest first, so a history over the index cap keeps its most recent searches
+    private boolean loadIndexHistory(
+            Long userId,
+            int capacity,
+            BiConsumer<SearchResultSummaryDto, List<GisItem>> sink) {
+        int loaded = 0;
+        long beforeId = Long.MAX_VALUE;
+        List<SearchResultEntity> batch;
+        do {
+            batch = searchResultRepository.findIndexBatch(userId, beforeId, Limit.of(INDEX_LOAD_BATCH_SIZE));
+            List<Long> normalizedIds = new ArrayList<>();
+            for (SearchResultEntity entity : batch) {
+                if (entity.getResultsPayload() == null && entity.getResultsJson() == null) {
+                    normalizedIds.add(entity.getId());
+                }
+            }
+            Map<Long, List<GisItem>> normalized = itemStore.loadAll(normalizedIds);
+
+            for (SearchResultEntity entity : batch) {
+                if (loaded == capacity) {
+                    return true;
+                }
+                List<GisItem> items = normalizedIds.contains(entity.getId())
+                        ? normalized.getOrDefault(entity.getId(), List.of())
+                        : readResults(entity).getItems();
+                sink.accept(summarize(entity, userId), items);
+                loaded++;
+                beforeId = entity.getId();
+            }
+        } while (batch.size() == INDEX_LOAD_BATCH_SIZE);
+        return false;
+    }
+
+    public Mono<List<SearchResultSummaryDto>> getSearchesWithItem(Long userId, String itemId, Integer limit) {
+        return metrics.timeResults("searches_with_item",
+                Mono.fromCallable(() -> searchResultRepository.findByItem(userId, itemId, Limit.of(clampLimit(limit))))
+                        .subscribeOn(blockingScheduler));
+    }
+
+    private void index(SearchResultEntity entity, Long userId, GisSearchResponse response) {
+        searchIndex.add(summarize(entity, userId), response.getItems());
+    }
+
+    private static SearchResultSummaryDto summarize(SearchResultEntity entity, Long userId) {
+        return new SearchResultSummaryDto(
+                entity.getId(),
+                userId,
+                entity.getCity(),
+                entity.getQuery(),
+                entity.getCreatedAt(),
+                entity.getResultsCount()
+        );
+    }
+
+    private GisSearchResponse readResults(SearchResultEntity entity) {
+        if (entity.getResultsPayload() != null) {
+            return payloadCodec.decode(entity.getResultsPayload());
+        }
+        if (entity.getResultsJson() != null) {
+            GisSearchResponse legacy = readLegacyJson(entity);
+            return legacy != null ? legacy : new GisSearchResponse();
+        }
+        return new GisSearchResponse(itemStore.load(entity.getId()));
+    }
+
+    // null when the stored text doesn't parse; such rows keep their results_json as is
+    private GisSearchResponse readLegacyJson(SearchResultEntity entity) {
+        try {
+            return payloadCodec.decodeJson(entity.getResultsJson());
+        } catch (IllegalArgumentException e) {
+            logger.error(() -> "Не удалось прочитать результаты поиска в старом формате, id: " + entity.getId(), e);
+            return null;
+        }
+    }
+
+    private SearchResultEntity toEntity(PendingSearchResult pending) {
+        SearchResultEntity entity = new SearchResultEntity(
+                userRepository.getReferenceById(pending.getUserId()),
+                pending.getCity(),
+                pending.getQuery(),
+                normalizedItems ? null : payloadCodec.encode(pending.getResponse()),
+                pending.getResponse().getItems().size()
+        );
+        entity.setCreatedAt(pending.getCreatedAt());
+        return entity;
+    }
+
+    public Mono<SearchHistoryPage> getUserSearchHistory(
+            Long userId,
+            String city,
+            String query,
+            String cursor,
+            Integer limit) {
+        return Mono.defer(() -> fetchHistoryPage(
+                userId, city, query, cursor != null ? HistoryCursor.decode(cursor) : null, clampLimit(limit)));
+    }
+
+    public Flux<SearchResultSummaryDto> streamUserSearchHistory(Long userId, String city) {
+        return fetchHistoryPage(userId, city, null, null, streamPageSize)
+                .expand(page -> page.getNextCursor() == null
+                        ? Mono.empty()
+                        : fetchHistoryPage(userId, city, null, HistoryCursor.decode(page.getNextCursor()), streamPageSize))
+                // prefetch 1: the next page is read only once this one is being written out
+                .concatMapIterable(SearchHistoryPage::getItems, 1);
+    }
+
+    private Mono<SearchHistoryPage> fetchHistoryPage(
+            Long userId,
+            String city,
+            String query,
+            HistoryCursor after,
+            int limit) {
+        return metrics.timeResults("history_page", Mono.fromCallable(() -> {
+            Limit window = Limit.of(limit + 1);
+            List<SearchResultSummaryDto> rows = after == null
+                    ? searchResultRepository.findHistoryPage(userId, city, query, window)
+                    : searchResultRepository.findHistoryPageAfter(
+                            userId, city, query, after.createdAt(), after.id(), window);
+
+            if (rows.size() <= limit) {
+                return new SearchHistoryPage(rows, null);
+            }
+            List<SearchResultSummaryDto> items = rows.subList(0, limit);
+            SearchResultSummaryDto last = items.get(limit - 1);
+            return new SearchHistoryPage(items, new HistoryCursor(last.getCreatedAt(), last.getId()).encode());
+        }).subscribeOn(blockingScheduler));
+    }
+
+    private int clampLimit(Integer limit) {
+        if (limit == null) {
+            return defaultLimit;
+        }
+        return Math.max(1, Math.min(limit, maxLimit));
     }
 
     @Transactional(readOnly = true)
-    public Mono<SearchResultDto> getSearchResultById(Long id) {
-        return Mono.fromCallable(() -> {
+    public Mono<GisSearchResponse> findLatestResponse(String city, String query) {
+        return metrics.timeResults("latest_response", Mono.fromCallable(() -> {
+            List<SearchResultEntity> latest = searchResultRepository.findLatest(city, query, Limit.of(1));
+            return latest.isEmpty() ? null : readResults(latest.get(0)).asStale();
+        }).subscribeOn(blockingScheduler));
+    }
+
+    public Mono<SearchResultDto> getSearchResultById(Long userId, Long id) {
+        return metrics.timeResults("result_by_id", Mono.fromCallable(() -> {
+            // another user's result is reported as missing, so ids can't be probed
             SearchResultEntity entity = searchResultRepository.findByIdWithUser(id)
-                    .orElseThrow(() -> new RuntimeException("Search result not found with id: " + id));
-            return new SearchResultDto(entity, objectMapper);
-        }).subscribeOn(Schedulers.boundedElastic());
+                    .filter(found -> found.getUser() != null && userId.equals(found.getUser().getId()))
+                    .orElseThrow(() -> new SearchResultNotFoundException(id));
+            if (entity.getResultsPayload() != null || entity.getResultsJson() == null) {
+                return new SearchResultDto(entity, readResults(entity));
+            }
+            GisSearchResponse legacy = readLegacyJson(entity);
+            if (legacy == null) {
+                return new SearchResultDto(entity, new GisSearchResponse());
+            }
+            migrateLegacyRow(entity, legacy);
+            return new SearchResultDto(entity, legacy);
+        }).subscribeOn(blockingScheduler));
+    }
+
+    // rows written before results_payload existed move to the current format the first time they are read
+    private void migrateLegacyRow(SearchResultEntity entity, GisSearchResponse results) {
+        retryItemConflict(() -> transactionTemplate.execute(status -> {
+            if (normalizedItems) {
+                itemStore.storeAll(Map.of(entity.getId(), results.getItems()));
+            } else {
+                entity.setResultsPayload(payloadCodec.encode(results));
+            }
+            entity.setResultsJson(null);
+            return searchResultRepository.save(entity);
+        }));
     }
 
     @Transactional(readOnly = true)
@@ -95,7 +377,18 @@ public class SearchResultService {
                 .filter(result -> city == null || result.getCity().equals(city))
                 .filter(result -> query == null || result.getQuery().contains(query))
                 .sorted((r1, r2) -> r2.getCreatedAt().compareTo(r1.getCreatedAt()))
-                .map(entity -> new SearchResultDto(entity, objectMapper))
+                .map(entity -> new SearchResultDto(entity, readResults(entity)))
                 .toList();
     }
+
+    private static final class RowRejectedException extends RuntimeException {
+        RowRejectedException(DataIntegrityViolationException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized DataIntegrityViolationException getCause() {
+            return (DataIntegrityViolationException) super.getCause();
+        }
+    }
 }
@@ -0,0 +1,184 @@
+package _gis.company_search.service;
+
+import _gis.company_search.config.BlockingScheduler;
+import _gis.company_search.dto.GisSearchResponse;
+import _gis.company_search.dto.PendingSearchResult;
+import _gis.company_search.dto.WriteBehindStats;
+import _gis.company_search.entity.SearchResultEntity;
+import _gis.company_search.logging.AsyncLogger;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind persistence of search results.
+ * <p>
+ * Searches enqueue their result and return; a single writer thread drains the bounded queue and
+ * stores rows through {@link SearchResultService#saveSearchResults} in JDBC batches, flushing when
+ * a batch fills up or when the flush interval passes. The batches run on the
+ * {@link BlockingScheduler}, so the writer's connection counts against the same permits as every
+ * other JDBC caller. A full queue makes callers wait up to the
+ * offer timeout and then write their row inline, so the queue never grows past its capacity.
+ */
+@Component
+public class SearchResultWriter {
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10_000;
+
+    private final SearchResultService searchResultService;
+    private final AsyncLogger logger;
+    private final Scheduler blockingScheduler;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Duration offerTimeout;
+    private final BlockingQueue<PendingSearchResult> queue;
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong inlineWrites = new AtomicLong();
+
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    public SearchResultWriter(
+            SearchResultService searchResultService,
+            AsyncLogger logger,
+            BlockingScheduler blockingScheduler,
+            @Value("${search.write-behind.enabled:false}") boolean enabled,
+            @Value("${search.write-behind.queue-capacity:10000}") int queueCapacity,
+            @Value("${search.write-behind.batch-size:50}") int batchSize,
+            @Value("${search.write-behind.flush-interval:PT0.5S}") Duration flushInterval,
+            @Value("${search.write-behind.offer-timeout:PT1S}") Duration offerTimeout
+    ) {
+        this.searchResultService = searchResultService;
+        this.logger = logger;
+        this.blockingScheduler = blockingScheduler.scheduler();
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.offerTimeout = offerTimeout;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        this.worker = new Thread(this::drainLoop, "search-result-writer");
+        this.worker.setDaemon(true);
+        if (enabled) {
+            this.worker.start();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Mono<Void> enqueue(Long userId, String city, String query, GisSearchResponse response) {
+        PendingSearchResult pending = new PendingSearchResult(userId, city, query, response);
+        if (running && queue.offer(pending)) {
+            return Mono.empty();
+        }
+
+        return Mono.fromRunnable(() -> {
+                    try {
+                        if (running && queue.offer(pending, offerTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                            return;
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    logger.warn("Очередь записи результатов заполнена, запись выполняется синхронно");
+                    inlineWrites.incrementAndGet();
+                    List<PendingSearchResult> batch = List.of(pending);
+                    write(batch, save(batch));
+                })
+                .subscribeOn(blockingScheduler)
+                .then();
+    }
+
+    public WriteBehindStats getStats() {
+        return new WriteBehindStats(
+                enabled,
+                queue.size(),
+                queue.remainingCapacity(),
+                written.get(),
+                skipped.get(),
+                failed.get(),
+                inlineWrites.get()
+        );
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        running = false;
+        if (enabled) {
+            worker.join(SHUTDOWN_TIMEOUT_MILLIS);
+        }
+        List<PendingSearchResult> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) {
+            write(rest, save(rest).subscribeOn(blockingScheduler));
+        }
+    }
+
+    private void drainLoop() {
+        List<PendingSearchResult> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingSearchResult first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                        break;
+                    }
+                    PendingSearchResult next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                write(batch, save(batch).subscribeOn(blockingScheduler));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private Mono<List<SearchResultEntity>> save(List<PendingSearchResult> batch) {
+        return Mono.fromCallable(() -> searchResultService.saveSearchResults(batch));
+    }
+
+    private void write(List<PendingSearchResult> batch, Mono<List<SearchResultEntity>> save) {
+        try {
+            List<SearchResultEntity> saved = save.block();
+            written.addAndGet(saved.size());
+            if (saved.size() < batch.size()) {
+                skipped.addAndGet(batch.size() - saved.size());
+                logger.warn("Пропущено результатов поиска без пользователя: {}", batch.size() - saved.size());
+            }
+            logger.debug("Записан пакет результатов поиска: {}", saved.size());
+        } catch (Exception e) {
+            failed.addAndGet(batch.size());
+            logger.error(() -> "Ошибка пакетной записи результатов поиска: " + batch.size(), e);
+        }
+    }
+}
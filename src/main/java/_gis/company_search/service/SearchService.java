@@ -1,120 +1,293 @@
 package _gis.company_search.service;
 
+import _gis.company_search.config.BlockingScheduler;
+import _gis.company_search.dto.BatchSearchRequest;
+import _gis.company_search.dto.BatchSearchResponse;
 import _gis.company_search.dto.GisItem;
 import _gis.company_search.dto.GisSearchResponse;
+import _gis.company_search.dto.PendingSearchResult;
+import _gis.company_search.dto.SearchRequest;
 import _gis.company_search.exception.DoubleGisApiException;
+import _gis.company_search.exception.GisCircuitOpenException;
+import _gis.company_search.exception.GisRateLimitedException;
+import _gis.company_search.exception.InvalidBatchSearchException;
+import _gis.company_search.exception.ResponseParseException;
 import _gis.company_search.logging.AsyncLogger;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Tags;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Scheduler;
-import reactor.core.scheduler.Schedulers;
 
 import java.net.URI;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
-import java.util.List;
 import java.util.ArrayList;
-import java.util.concurrent.ExecutorService;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class SearchService {
+    private static final int DEFAULT_PAGE = 1;
+    private static final int DEFAULT_PAGE_SIZE = 10;
+    private static final int MAX_BATCH_PAGES = 10;
+    private static final int MAX_BATCH_PAGE_SIZE = 50;
+
     private final String apiUrl;
     private final String apiKey;
     private final WebClient dgClient;
-    private final ObjectMapper mapper;
-    private final Scheduler customScheduler;
+    private final GisResponseParser responseParser;
+    private final Scheduler blockingScheduler;
     private final AsyncLogger logger;
     private final SearchResultService searchResultService;
+    private final SearchCache searchCache;
+    private final SearchResultWriter searchResultWriter;
+    private final GisRequestLimiter requestLimiter;
+    private final UpstreamCallPolicy callPolicy;
+    private final GisCircuitBreaker circuitBreaker;
+    private final PipelineMetrics metrics;
+    private final boolean fallbackEnabled;
+    private final int batchConcurrency;
+    private final int batchMaxQueries;
 
     public SearchService(
             @Value("${dgis.api.key}") String apiKey,
             @Value("${dgis.base.api.url}") String apiUrl,
             WebClient dgClient,
-            ExecutorService searchExecutorService,
-            ObjectMapper mapper,
+            GisResponseParser responseParser,
             AsyncLogger logger,
-            SearchResultService searchResultService
+            SearchResultService searchResultService,
+            SearchCache searchCache,
+            SearchResultWriter searchResultWriter,
+            GisRequestLimiter requestLimiter,
+            UpstreamCallPolicy callPolicy,
+            GisCircuitBreaker circuitBreaker,
+            BlockingScheduler blockingScheduler,
+            PipelineMetrics metrics,
+            @Value("${dgis.fallback.enabled:true}") boolean fallbackEnabled,
+            @Value("${dgis.batch.concurrency:8}") int batchConcurrency,
+            @Value("${dgis.batch.max-queries:100}") int batchMaxQueries
     ) {
         this.apiKey = apiKey;
         this.apiUrl = apiUrl;
         this.dgClient = dgClient;
-        this.mapper = mapper;
-        this.customScheduler = Schedulers.fromExecutorService(searchExecutorService);
+        this.responseParser = responseParser;
         this.logger = logger;
         this.searchResultService = searchResultService;
+        this.searchCache = searchCache;
+        this.searchResultWriter = searchResultWriter;
+        this.requestLimiter = requestLimiter;
+        this.callPolicy = callPolicy;
+        this.circuitBreaker = circuitBreaker;
+        this.blockingScheduler = blockingScheduler.scheduler();
+        this.metrics = metrics;
+        this.fallbackEnabled = fallbackEnabled;
+        this.batchConcurrency = batchConcurrency;
+        this.batchMaxQueries = batchMaxQueries;
     }
 
     public Mono<GisSearchResponse> search(Long userId, String city, String name) {
-        logger.info("Начало поиска для города: " + city + ", запрос: " + name);
+        logger.info("Начало поиска для города: {}, запрос: {}", city, name);
 
-        return Mono.fromCallable(() -> {
-                    logger.debug("Подготовка запроса в потоке: " + Thread.currentThread().getName());
-            return URLEncoder.encode(city + " " + name, StandardCharsets.UTF_8);
-        })
-        .subscribeOn(customScheduler)
-        .flatMap(query -> {
-            String fullUrl = apiUrl + "/items?q=" + query +
-                    "&type=branch&page_size=10&page=1&key=" + apiKey;
-
-            logger.info("Сформирован URL запроса: " + fullUrl);
-            logger.debug("Отправка HTTP запроса к 2GIS API");
-            return dgClient.get()
-                    .uri(uriBuilder -> {
-                        URI uri = URI.create(fullUrl);
-                        return uri;
-                    })
-                    .retrieve()
-                    .onStatus(
-                            status -> status.value() != 200,
-                            response -> {
-                                logger.error("HTTP ошибка: " + response.statusCode().value(), null);
-                                return Mono.error(new DoubleGisApiException());
-                            }
-                    )
-                    .bodyToMono(String.class)
-                    .doOnNext(body -> {
-                        logger.info("Длина тела ответа: " + body.length() + " символов");
-                        logger.info("Тело ответа: " + body);
-                    });
-        })
-        .map(responseBody -> {
-            try {
-                logger.debug("Парсинг ответа в потоке: " + Thread.currentThread().getName());
-
-                List<GisItem> gisItems = new ArrayList<>();
-                JsonNode root = mapper.readTree(responseBody);
-
-                logger.debug("JSON распарсен. Структура корня: " + root.toString());
-
-                JsonNode items = root.path("result").path("items");
-
-                for (JsonNode item : items) {
-                    String itemName = item.path("name").asText();
-                    logger.info(itemName);
-                    String itemValue = item.path("address_name").asText();
-                    String itemId = item.path("id").asText();
-                    GisItem gisItem = new GisItem(itemId, itemName, itemValue);
-                    gisItems.add(gisItem);
-                }
-
-                logger.info("Парсинг завершен успешно. Найдено элементов: " + gisItems.size());
-                return new GisSearchResponse(gisItems);
-            } catch (Exception e) {
-                logger.error("Ошибка парсинга JSON", e);
-                throw new RuntimeException("Ошибка парсинга JSON", e);
-            }
-        })
+        Mono<GisSearchResponse> search = searchCache.get(city, name, DEFAULT_PAGE, DEFAULT_PAGE_SIZE,
+                        () -> fetch(city, name, DEFAULT_PAGE, DEFAULT_PAGE_SIZE))
         .flatMap(response -> {
-            logger.info("Сохранение результатов поиска в БД для пользователя: " + userId);
+            if (searchResultWriter.isEnabled()) {
+                logger.info("Постановка результатов поиска в очередь записи для пользователя: {}", userId);
+                return searchResultWriter.enqueue(userId, city, name, response)
+                        .doOnError(error -> logger.error("Ошибка сохранения результатов в БД", error))
+                        .thenReturn(response);
+            }
+
+            logger.info("Сохранение результатов поиска в БД для пользователя: {}", userId);
             return searchResultService.saveSearchResult(userId, city, name, response)
-                    .doOnSuccess(saved -> logger.info("Результаты успешно сохранены с ID: " + saved.getId()))
+                    .doOnSuccess(saved -> logger.info("Результаты успешно сохранены с ID: {}", saved.getId()))
                     .doOnError(error -> logger.error("Ошибка сохранения результатов в БД", error))
                     .thenReturn(response);
         })
-        .doOnError(error -> logger.error("Ошибка выполнения поиска: " + error.getMessage(), error));
+        .onErrorResume(error -> fallbackEnabled && isUpstreamUnavailable(error),
+                error -> latestFromHistory(city, name, error));
+
+        return metrics.time(PipelineMetrics.SEARCH, Tags.empty(), search)
+                .doOnError(error -> logger.error(() -> "Ошибка выполнения поиска: " + error.getMessage(), error));
+    }
+
+    private Mono<GisSearchResponse> latestFromHistory(String city, String name, Throwable error) {
+        logger.warn("2GIS недоступен, поиск сохраненного результата для города: {}, запрос: {}", city, name);
+        return searchResultService.findLatestResponse(city, name)
+                .doOnNext(response -> logger.info("Отдан устаревший результат из истории. Элементов: {}",
+                        response.getItems().size()))
+                .switchIfEmpty(Mono.error(error));
+    }
+
+    private static boolean isUpstreamUnavailable(Throwable error) {
+        return error instanceof GisCircuitOpenException
+                || error instanceof GisRateLimitedException
+                || UpstreamErrors.isTransient(error);
+    }
+
+    public Mono<BatchSearchResponse> searchBatch(Long userId, BatchSearchRequest request) {
+        return Mono.defer(() -> {
+            List<PageTask> tasks = plan(request);
+            logger.info("Начало пакетного поиска. Запросов к 2GIS: {}, параллельность: {}", tasks.size(), batchConcurrency);
+
+            AtomicInteger failed = new AtomicInteger();
+            return Flux.fromIterable(tasks)
+                    .flatMapSequential(task -> searchCache.get(task.city(), task.text(), task.page(), task.pageSize(),
+                                            () -> fetch(task.city(), task.text(), task.page(), task.pageSize()))
+                                    .map(response -> new PageResult(task, response))
+                                    .onErrorResume(error -> {
+                                        failed.incrementAndGet();
+                                        logger.error(() -> "Ошибка загрузки страницы " + task.page() +
+                                                " для запроса: " + task.text(), error);
+                                        return Mono.empty();
+                                    }),
+                            batchConcurrency)
+                    .collectList()
+                    .flatMap(pages -> merge(userId, pages, failed.get()));
+        });
+    }
+
+    private List<PageTask> plan(BatchSearchRequest request) {
+        List<SearchRequest> queries = request.getQueries();
+        if (queries == null || queries.isEmpty()) {
+            throw new InvalidBatchSearchException("Batch must contain at least one query");
+        }
+        if (queries.size() > batchMaxQueries) {
+            throw new InvalidBatchSearchException("Batch may contain at most " + batchMaxQueries + " queries");
+        }
+
+        int firstPage = request.getFirstPage() != null ? request.getFirstPage() : DEFAULT_PAGE;
+        int lastPage = request.getLastPage() != null ? request.getLastPage() : firstPage;
+        int pageSize = request.getPageSize() != null ? request.getPageSize() : DEFAULT_PAGE_SIZE;
+        if (firstPage < 1 || lastPage < firstPage || lastPage - firstPage + 1 > MAX_BATCH_PAGES) {
+            throw new InvalidBatchSearchException("Page range must start at 1 or later and span at most "
+                    + MAX_BATCH_PAGES + " pages");
+        }
+        if (pageSize < 1 || pageSize > MAX_BATCH_PAGE_SIZE) {
+            throw new InvalidBatchSearchException("Page size must be between 1 and " + MAX_BATCH_PAGE_SIZE);
+        }
+
+        List<PageTask> tasks = new ArrayList<>(queries.size() * (lastPage - firstPage + 1));
+        for (SearchRequest query : queries) {
+            if (query.getCity() == null || query.getCity().isBlank()
+                    || query.getPlaceName() == null || query.getPlaceName().isBlank()) {
+                throw new InvalidBatchSearchException("Every query needs a city and a placeName");
+            }
+            for (int page = firstPage; page <= lastPage; page++) {
+                tasks.add(new PageTask(query.getCity(), query.getPlaceName(), page, pageSize));
+            }
+        }
+        return tasks;
+    }
+
+    private Mono<BatchSearchResponse> merge(Long userId, List<PageResult> pages, int failed) {
+        List<GisItem> allItems = new ArrayList<>();
+        Set<String> allIds = new HashSet<>();
+        Map<QueryKey, List<GisItem>> byQuery = new LinkedHashMap<>();
+        Map<QueryKey, Set<String>> idsByQuery = new HashMap<>();
+
+        for (PageResult page : pages) {
+            QueryKey query = page.task().query();
+            List<GisItem> items = page.response().getItems();
+            addUnique(byQuery.computeIfAbsent(query, key -> new ArrayList<>()),
+                    idsByQuery.computeIfAbsent(query, key -> new HashSet<>()), items);
+            addUnique(allItems, allIds, items);
+        }
+
+        List<PendingSearchResult> pending = new ArrayList<>(byQuery.size());
+        byQuery.forEach((query, items) ->
+                pending.add(new PendingSearchResult(userId, query.city(), query.text(), new GisSearchResponse(items))));
+
+        logger.info("Пакетный поиск завершен. Уникальных элементов: {}, ошибок: {}", allItems.size(), failed);
+        if (pending.isEmpty()) {
+            return Mono.just(new BatchSearchResponse(allItems, pages.size(), failed, 0));
+        }
+        return metrics.timeResults("save_batch", Mono.fromCallable(() -> searchResultService.saveSearchResults(pending))
+                        .subscribeOn(blockingScheduler))
+                .doOnError(error -> logger.error("Ошибка сохранения результатов в БД", error))
+                .map(saved -> new BatchSearchResponse(allItems, pages.size(), failed, saved.size()));
+    }
+
+    private static void addUnique(List<GisItem> target, Set<String> seen, List<GisItem> items) {
+        for (GisItem item : items) {
+            String id = item.getId();
+            if (id == null || id.isEmpty() || seen.add(id)) {
+                target.add(item);
+            }
+        }
+    }
+
+    private Mono<GisSearchResponse> fetch(String city, String name, int page, int pageSize) {
+        return Mono.defer(() -> {
+            long buildStart = System.nanoTime();
+            String fullUrl = apiUrl + "/items?q=" + URLEncoder.encode(city + " " + name, StandardCharsets.UTF_8) +
+                    "&type=branch&page_size=" + pageSize + "&page=" + page + "&key=" + apiKey;
+            metrics.recordUrlBuild(System.nanoTime() - buildStart);
+
+            logger.info("Сформирован URL запроса: {}", fullUrl);
+            return circuitBreaker.execute(() ->
+                    callPolicy.execute(() -> requestLimiter.execute(() -> exchange(fullUrl))));
+        })
+        .doOnError(ResponseParseException.class, e -> logger.error("Ошибка парсинга JSON", e));
+    }
+
+    private Mono<GisSearchResponse> exchange(String fullUrl) {
+        logger.debug("Отправка HTTP запроса к 2GIS API");
+        AtomicLong bodySize = new AtomicLong();
+        AtomicInteger status = new AtomicInteger();
+        long start = System.nanoTime();
+        Flux<DataBuffer> body = dgClient.get()
+                .uri(uriBuilder -> {
+                    URI uri = URI.create(fullUrl);
+                    return uri;
+                })
+                .retrieve()
+                .onStatus(
+                        code -> {
+                            status.set(code.value());
+                            return code.value() != 200;
+                        },
+                        response -> {
+                            int code = response.statusCode().value();
+                            logger.error(() -> "HTTP ошибка: " + code, null);
+                            return Mono.error(new DoubleGisApiException(code));
+                        }
+                )
+                .bodyToFlux(DataBuffer.class)
+                .doOnNext(buffer -> bodySize.addAndGet(buffer.readableByteCount()))
+                .doOnComplete(() -> {
+                    metrics.recordUpstream(status.get(), "success", System.nanoTime() - start);
+                    metrics.recordBodySize(bodySize.get());
+                })
+                .doOnError(error -> metrics.recordUpstream(status.get(), "error", System.nanoTime() - start))
+                .doOnCancel(() -> metrics.recordUpstream(status.get(), "cancelled", System.nanoTime() - start));
+
+        return responseParser.parse(body)
+                .doOnNext(response -> {
+                    logger.info("Длина тела ответа: {} байт", bodySize.get());
+                    logger.info("Парсинг завершен успешно. Найдено элементов: {}", response.getItems().size());
+                });
+    }
+
+    private record PageTask(String city, String text, int page, int pageSize) {
+        QueryKey query() {
+            return new QueryKey(city, text);
+        }
+    }
+
+    private record QueryKey(String city, String text) {
+    }
+
+    private record PageResult(PageTask task, GisSearchResponse response) {
     }
 }
@@ -0,0 +1,118 @@
+package _gis.company_search.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Stateless session tokens: {@code base64url(userId, expiresAt) "." base64url(HMAC-SHA256)}.
+ * <p>
+ * Verifying a token is one HMAC over 16 bytes and needs neither the database nor any server-side
+ * session state. The signing key is {@code auth.token.secret}; without it a key is derived from
+ * {@code hashKey}, so password hashes and tokens never share a key. Tokens can't be revoked before
+ * they expire, which keeps the TTL short.
+ */
+@Component
+public class TokenService {
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int PAYLOAD_LENGTH = 16;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final long ttlSeconds;
+    private final Clock clock;
+    private final ThreadLocal<Mac> macs;
+
+    @Autowired
+    public TokenService(
+            @Value("${auth.token.secret:}") String secret,
+            @Value("${hashKey}") String hashKey,
+            @Value("${auth.token.ttl:PT12H}") Duration ttl
+    ) {
+        this(secret, hashKey, ttl, Clock.systemUTC());
+    }
+
+    TokenService(String secret, String hashKey, Duration ttl, Clock clock) {
+        byte[] keyBytes = secret != null && !secret.isBlank()
+                ? secret.getBytes(StandardCharsets.UTF_8)
+                : derive(hashKey);
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+        this.ttlSeconds = ttl.toSeconds();
+        this.clock = clock;
+        this.macs = ThreadLocal.withInitial(this::newMac);
+        macs.get();
+    }
+
+    public String issue(Long userId) {
+        byte[] payload = ByteBuffer.allocate(PAYLOAD_LENGTH)
+                .putLong(userId)
+                .putLong(clock.instant().getEpochSecond() + ttlSeconds)
+                .array();
+        return ENCODER.encodeToString(payload) + "." + ENCODER.encodeToString(sign(payload));
+    }
+
+    /**
+     * Returns the user id the token was issued for, or {@code null} when the token is malformed,
+     * forged or expired.
+     */
+    public Long verify(String token) {
+        if (token == null) {
+            return null;
+        }
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot != token.lastIndexOf('.')) {
+            return null;
+        }
+        byte[] payload;
+        byte[] signature;
+        try {
+            payload = DECODER.decode(token.substring(0, dot));
+            signature = DECODER.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (payload.length != PAYLOAD_LENGTH || !MessageDigest.isEqual(sign(payload), signature)) {
+            return null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        long userId = buffer.getLong();
+        long expiresAt = buffer.getLong();
+        return clock.instant().getEpochSecond() < expiresAt ? userId : null;
+    }
+
+    private byte[] sign(byte[] payload) {
+        return macs.get().doFinal(payload);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Token signing is not available", e);
+        }
+    }
+
+    private static byte[] derive(String hashKey) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(hashKey.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+            return mac.doFinal("session-token".getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Token signing is not available", e);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package _gis.company_search.service;
+
+import _gis.company_search.dto.UpstreamCallStats;
+import _gis.company_search.exception.DoubleGisApiException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Retry, hedging and deadline policy for idempotent 2GIS GETs.
+ * <p>
+ * Transient failures (connection errors, 429 and 5xx) are retried with exponential backoff and
+ * jitter. When hedging is on, a second attempt starts once the first has been running longer than
+ * the recent p95 latency, and whichever answers first wins. Retries and hedges draw from one budget
+ * that every call refills by {@code budget-ratio}, so under a sustained outage extra attempts stay
+ * a fixed fraction of the traffic instead of multiplying it. The whole call, retries included, is
+ * bounded by the deadline.
+ */
+@Component
+public class UpstreamCallPolicy {
+    private static final int LATENCY_WINDOW = 256;
+    private static final int MIN_HEDGE_SAMPLES = 20;
+    private static final int P95_REFRESH_INTERVAL = 16;
+
+    private final Duration deadline;
+    private final int maxAttempts;
+    private final Retry retry;
+    private final double budgetRatio;
+    private final double budgetBurst;
+    private final boolean hedgeEnabled;
+    private final long hedgeMinDelayNanos;
+
+    private double budget;
+    private final long[] latencies = new long[LATENCY_WINDOW];
+    private int latencyCount;
+    private int latencyNext;
+    private long p95Nanos = -1;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder retriesDenied = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder deadlineExceeded = new LongAdder();
+
+    public UpstreamCallPolicy(
+            @Value("${dgis.call.deadline:PT10S}") Duration deadline,
+            @Value("${dgis.call.retry.max-attempts:3}") int maxAttempts,
+            @Value("${dgis.call.retry.initial-backoff:PT0.1S}") Duration initialBackoff,
+            @Value("${dgis.call.retry.max-backoff:PT1S}") Duration maxBackoff,
+            @Value("${dgis.call.retry.jitter:0.5}") double jitter,
+            @Value("${dgis.call.retry.budget-ratio:0.2}") double budgetRatio,
+            @Value("${dgis.call.retry.budget-burst:10}") int budgetBurst,
+            @Value("${dgis.call.hedge.enabled:false}") boolean hedgeEnabled,
+            @Value("${dgis.call.hedge.min-delay:PT0.05S}") Duration hedgeMinDelay
+    ) {
+        this.deadline = deadline;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.budgetRatio = budgetRatio;
+        this.budgetBurst = budgetBurst;
+        this.budget = budgetBurst;
+        this.hedgeEnabled = hedgeEnabled;
+        this.hedgeMinDelayNanos = hedgeMinDelay.toNanos();
+        this.retry = Retry.backoff(this.maxAttempts - 1, initialBackoff)
+                .maxBackoff(maxBackoff)
+                .jitter(jitter)
+                .filter(error -> UpstreamErrors.isTransient(error) && withdraw(retriesDenied))
+                .doBeforeRetry(signal -> retries.increment())
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+
+    public <T> Mono<T> execute(Supplier<Mono<T>> attempt) {
+        return Mono.defer(() -> {
+            calls.increment();
+            deposit();
+
+            Mono<T> call = Mono.defer(() -> hedged(attempt));
+            if (maxAttempts > 1) {
+                call = call.retryWhen(retry);
+            }
+            return call
+                    .timeout(deadline)
+                    .onErrorMap(TimeoutException.class, e -> {
+                        deadlineExceeded.increment();
+                        return new DoubleGisApiException(HttpStatus.GATEWAY_TIMEOUT.value());
+                    });
+        });
+    }
+
+    public UpstreamCallStats getStats() {
+        long p95;
+        synchronized (this) {
+            p95 = p95Nanos;
+        }
+        return new UpstreamCallStats(
+                calls.sum(),
+                retries.sum(),
+                retriesDenied.sum(),
+                hedges.sum(),
+                hedgeWins.sum(),
+                deadlineExceeded.sum(),
+                p95 < 0 ? 0 : p95 / 1_000_000.0
+        );
+    }
+
+    private <T> Mono<T> hedged(Supplier<Mono<T>> attempt) {
+        Mono<T> primary = timed(attempt);
+        long delay = hedgeDelayNanos();
+        if (delay < 0) {
+            return primary;
+        }
+
+        Mono<T> hedge = Mono.delay(Duration.ofNanos(delay))
+                .flatMap(tick -> {
+                    if (!withdraw(null)) {
+                        return Mono.never();
+                    }
+                    hedges.increment();
+                    return timed(attempt)
+                            .doOnNext(value -> hedgeWins.increment())
+                            .onErrorResume(error -> Mono.never());
+                });
+        return Mono.firstWithSignal(primary, hedge);
+    }
+
+    private <T> Mono<T> timed(Supplier<Mono<T>> attempt) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return attempt.get().doOnNext(value -> recordLatency(System.nanoTime() - start));
+        });
+    }
+
+    private synchronized void deposit() {
+        budget = Math.min(budgetBurst, budget + budgetRatio);
+    }
+
+    private synchronized boolean withdraw(LongAdder deniedCounter) {
+        if (budget >= 1) {
+            budget -= 1;
+            return true;
+        }
+        if (deniedCounter != null) {
+            deniedCounter.increment();
+        }
+        return false;
+    }
+
+    private synchronized long hedgeDelayNanos() {
+        if (!hedgeEnabled || latencyCount < MIN_HEDGE_SAMPLES || p95Nanos < 0) {
+            return -1;
+        }
+        return Math.max(hedgeMinDelayNanos, p95Nanos);
+    }
+
+    private synchronized void recordLatency(long nanos) {
+        latencies[latencyNext] = nanos;
+        latencyNext = (latencyNext + 1) % LATENCY_WINDOW;
+        latencyCount = Math.min(LATENCY_WINDOW, latencyCount + 1);
+
+        if (latencyCount >= MIN_HEDGE_SAMPLES && (p95Nanos < 0 || latencyNext % P95_REFRESH_INTERVAL == 0)) {
+            long[] window = Arrays.copyOf(latencies, latencyCount);
+            Arrays.sort(window);
+            p95Nanos = window[(int) Math.ceil(window.length * 0.95) - 1];
+        }
+    }
+}
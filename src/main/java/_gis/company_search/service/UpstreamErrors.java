@@ -0,0 +1,24 @@
+package _gis.company_search.service;
+
+import _gis.company_search.exception.DoubleGisApiException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.netty.http.client.PrematureCloseException;
+
+final class UpstreamErrors {
+    private UpstreamErrors() {
+    }
+
+    /**
+     * Whether the failure says something about 2GIS being unavailable or overloaded (connection
+     * problems, 429, 5xx) rather than about the request itself.
+     */
+    static boolean isTransient(Throwable error) {
+        if (error instanceof DoubleGisApiException apiError) {
+            return apiError.getStatus() == HttpStatus.TOO_MANY_REQUESTS.value() || apiError.getStatus() >= 500;
+        }
+        return error instanceof WebClientRequestException
+                || error instanceof PrematureCloseException
+                || error instanceof io.netty.handler.timeout.TimeoutException;
+    }
+}
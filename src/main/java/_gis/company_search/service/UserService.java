@@ -1,48 +1,89 @@
 package _gis.company_search.service;
 
+import io.micrometer.core.instrument.Tags;
 import org.springframework.stereotype.Service;
-import java.util.Optional;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
+import _gis.company_search.config.BlockingScheduler;
 import _gis.company_search.entity.UserEntity;
 import _gis.company_search.repository.UserRepository;
 import _gis.company_search.exception.InvalidPasswordException;
 import _gis.company_search.exception.UserNotFoundException;
 
+/**
+ * Registration and login. Password hashing runs on the bounded {@code auth} scheduler; user lookups
+ * and saves go through {@link BlockingScheduler} like every other JDBC call, so they share its
+ * Hikari-sized limit instead of competing for connections next to it.
+ */
 @Service
 public class UserService {
 
     private final HashService hashService;
     private final UserRepository userRepository;
+    private final LoginCache loginCache;
+    private final PipelineMetrics metrics;
+    private final Scheduler blockingScheduler;
+    private final Scheduler authScheduler;
 
-    public UserService(HashService hashService, UserRepository userRepository) {
+    public UserService(
+            HashService hashService,
+            UserRepository userRepository,
+            LoginCache loginCache,
+            PipelineMetrics metrics,
+            BlockingScheduler blockingScheduler,
+            Scheduler authScheduler) {
         this.hashService = hashService;
         this.userRepository = userRepository;
+        this.loginCache = loginCache;
+        this.metrics = metrics;
+        this.blockingScheduler = blockingScheduler.scheduler();
+        this.authScheduler = authScheduler;
     }
 
     public Mono<UserEntity> createUser(UserEntity user) {
         return Mono.fromCallable(() -> {
-            String hashPassword = hashService.hashString(user.getPassword());
-            user.setPassword(hashPassword);
-            return userRepository.save(user);
-        });
+                    user.setPassword(hashService.hashString(user.getPassword()));
+                    return user;
+                })
+                .subscribeOn(authScheduler)
+                .flatMap(hashed -> Mono.fromCallable(() -> {
+                    UserEntity saved = userRepository.save(hashed);
+                    loginCache.invalidate(saved.getEmail());
+                    return saved;
+                }).subscribeOn(blockingScheduler));
     }
 
     public Mono<UserEntity> login(String email, String password) {
-        return Mono.fromCallable(() -> {
-            Optional<UserEntity> userOpt = userRepository.findByEmail(email);
-
-            UserEntity user = userOpt.orElseThrow(
-                    UserNotFoundException::new
-            );
-
-            String hashPassword = hashService.hashString(password);
+        return metrics.time(PipelineMetrics.LOGIN, Tags.empty(), findForLogin(email)
+                .publishOn(authScheduler)
+                .flatMap(user -> {
+                    if (!hashService.matches(password, user.getPassword())) {
+                        return Mono.error(new InvalidPasswordException());
+                    }
+                    if (!hashService.needsRehash(user.getPassword())) {
+                        return Mono.just(user);
+                    }
+                    user.setPassword(hashService.hashString(password));
+                    return Mono.fromCallable(() -> {
+                        UserEntity saved = userRepository.save(user);
+                        loginCache.put(saved);
+                        return saved;
+                    }).subscribeOn(blockingScheduler);
+                }));
+    }
 
-            if (!user.getPassword().equals(hashPassword)) {
-                throw new InvalidPasswordException();
+    private Mono<UserEntity> findForLogin(String email) {
+        return Mono.defer(() -> {
+            UserEntity cached = loginCache.get(email);
+            if (cached != null) {
+                return Mono.just(cached);
             }
-
-            return user;
+            return Mono.fromCallable(() -> {
+                UserEntity user = userRepository.findByEmail(email).orElseThrow(UserNotFoundException::new);
+                loginCache.put(user);
+                return user;
+            }).subscribeOn(blockingScheduler);
         });
     }
 }
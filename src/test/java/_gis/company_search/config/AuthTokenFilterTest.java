@@ -0,0 +1,64 @@
+package _gis.company_search.config;
+
+import _gis.company_search.controller.SearchController;
+import _gis.company_search.dto.GisItem;
+import _gis.company_search.dto.GisSearchResponse;
+import _gis.company_search.logging.AsyncLogger;
+import _gis.company_search.service.SearchResultService;
+import _gis.company_search.service.SearchService;
+import _gis.company_search.service.TokenService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+class AuthTokenFilterTest {
+    private SearchService searchService;
+    private TokenService tokenService;
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        searchService = mock(SearchService.class);
+        tokenService = new TokenService("", "testKey", Duration.ofHours(1));
+        client = WebTestClient
+                .bindToController(new SearchController(searchService, mock(SearchResultService.class),
+                        mock(AsyncLogger.class)))
+                .webFilter(new AuthTokenFilter(tokenService))
+                .build();
+    }
+
+    @Test
+    void search_ValidToken_ResolvesUserIdFromToken() {
+        when(searchService.search(42L, "Москва", "кафе"))
+                .thenReturn(Mono.just(new GisSearchResponse(List.of(new GisItem("1", "Кафе", "Тверская, 1")))));
+
+        client.get().uri("/api/search?city=Москва&text=кафе&userId=7")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + tokenService.issue(42L))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.items[0].id").isEqualTo("1");
+
+        verify(searchService).search(42L, "Москва", "кафе");
+    }
+
+    @Test
+    void search_MissingOrInvalidToken_Returns401WithoutCallingService() {
+        client.get().uri("/api/search?city=Москва&text=кафе")
+                .exchange()
+                .expectStatus().isUnauthorized();
+
+        client.get().uri("/api/search?city=Москва&text=кафе")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer forged.token")
+                .exchange()
+                .expectStatus().isUnauthorized();
+
+        verifyNoInteractions(searchService);
+    }
+}
@@ -0,0 +1,61 @@
+package _gis.company_search.config;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BlockingSchedulerTest {
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void scheduler_RunsTasksOnNamedThreads(boolean virtualThreads) {
+        BlockingScheduler blockingScheduler = new BlockingScheduler(virtualThreads, 1, 1);
+
+        StepVerifier.create(Mono.fromCallable(Thread::currentThread)
+                        .subscribeOn(blockingScheduler.scheduler()))
+                .assertNext(thread -> {
+                    assertThat(thread.getName()).startsWith("search-blocking-");
+                    assertThat(thread.isVirtual()).isEqualTo(virtualThreads);
+                })
+                .verifyComplete();
+        blockingScheduler.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void scheduler_QueueFull_RejectsAndCounts(boolean virtualThreads) throws InterruptedException {
+        BlockingScheduler blockingScheduler = new BlockingScheduler(virtualThreads, 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        Mono.fromRunnable(() -> {
+            started.countDown();
+            awaitQuietly(release);
+        }).subscribeOn(blockingScheduler.scheduler()).subscribe();
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        Mono.fromRunnable(() -> {
+        }).subscribeOn(blockingScheduler.scheduler()).subscribe();
+
+        StepVerifier.create(Mono.just(1).subscribeOn(blockingScheduler.scheduler()))
+                .expectError(RejectedExecutionException.class)
+                .verify();
+
+        assertThat(blockingScheduler.getStats().getActive()).isEqualTo(1);
+        release.countDown();
+        assertThat(blockingScheduler.getStats().getRejected()).isEqualTo(1);
+        blockingScheduler.close();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
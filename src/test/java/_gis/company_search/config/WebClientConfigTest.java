@@ -0,0 +1,71 @@
+package _gis.company_search.config;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebClientConfigTest {
+    private final WebClientConfig config = new WebClientConfig();
+    private MockWebServer mockWebServer;
+    private ConnectionProvider connectionProvider;
+    private ConnectionPoolMetricsRegistrar metricsRegistrar;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mockWebServer = new MockWebServer();
+        mockWebServer.start();
+
+        metricsRegistrar = new ConnectionPoolMetricsRegistrar();
+        connectionProvider = config.dgConnectionProvider(4, 16, Duration.ofSeconds(1),
+                Duration.ofSeconds(30), Duration.ofMinutes(5), Duration.ofSeconds(15), metricsRegistrar);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        connectionProvider.dispose();
+        mockWebServer.shutdown();
+    }
+
+    private WebClient client(Duration responseTimeout) {
+        return config.dgClient(connectionProvider, mockWebServer.url("/").toString(),
+                Duration.ofSeconds(1), Duration.ofSeconds(5), responseTimeout, true, true);
+    }
+
+    @Test
+    void dgClient_RequestsCompressedResponses_AndPublishesPoolMetrics() throws InterruptedException {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody("{}"));
+
+        StepVerifier.create(client(Duration.ofSeconds(5)).get().uri("/items").retrieve().bodyToMono(String.class))
+                .expectNext("{}")
+                .verifyComplete();
+
+        RecordedRequest request = mockWebServer.takeRequest();
+        assertThat(request.getHeader("Accept-Encoding")).contains("gzip");
+        assertThat(metricsRegistrar.getStats().getPools()).isEqualTo(1);
+        assertThat(metricsRegistrar.getStats().getAllocated()).isEqualTo(1);
+    }
+
+    @Test
+    void dgClient_SlowUpstream_FailsWithResponseTimeout() {
+        mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .setBody("{}")
+                .setHeadersDelay(2, TimeUnit.SECONDS));
+
+        StepVerifier.create(client(Duration.ofMillis(200)).get().uri("/items").retrieve().bodyToMono(String.class))
+                .expectError()
+                .verify(Duration.ofSeconds(5));
+    }
+}
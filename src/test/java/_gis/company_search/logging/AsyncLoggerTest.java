@@ -0,0 +1,49 @@
+package _gis.company_search.logging;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AsyncLoggerTest {
+    private RingBufferLogBackend backend;
+    private AsyncLogger logger;
+
+    @BeforeEach
+    void setUp() {
+        backend = mock(RingBufferLogBackend.class);
+        logger = new AsyncLogger(backend, LogLevel.INFO);
+    }
+
+    @Test
+    void debug_BelowThreshold_DoesNotBuildOrPublishMessage() {
+        AtomicInteger built = new AtomicInteger();
+
+        logger.debug(() -> "tree: " + built.incrementAndGet());
+        logger.debug("Подготовка запроса в потоке: {}", "main");
+
+        assertThat(built.get()).isZero();
+        verifyNoInteractions(backend);
+    }
+
+    @Test
+    void info_Template_PublishesPatternAndArgsUnformatted() {
+        logger.info("Начало поиска для города: {}, запрос: {}", "Москва", "кафе");
+
+        verify(backend).publish(LogLevel.INFO, "Начало поиска для города: {}, запрос: {}", 2, "Москва", "кафе", null);
+    }
+
+    @Test
+    void setLevel_Debug_EnablesSuppliers() {
+        logger.setLevel(LogLevel.DEBUG);
+
+        logger.debug(() -> "tree");
+
+        assertThat(logger.isDebugEnabled()).isTrue();
+        verify(backend).publish(eq(LogLevel.DEBUG), eq("tree"), isNull());
+    }
+}
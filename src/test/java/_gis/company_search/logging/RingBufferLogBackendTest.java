@@ -0,0 +1,171 @@
+package _gis.company_search.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RingBufferLogBackendTest {
+
+    private static final class GatedChannel implements WritableByteChannel {
+        private final ByteArrayOutputStream target = new ByteArrayOutputStream();
+        private final WritableByteChannel delegate = Channels.newChannel(target);
+        private final CountDownLatch writeStarted = new CountDownLatch(1);
+        private final CountDownLatch gate;
+
+        GatedChannel(boolean open) {
+            this.gate = new CountDownLatch(open ? 0 : 1);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            writeStarted.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return delegate.write(src);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        String text() {
+            return target.toString(StandardCharsets.UTF_8);
+        }
+
+        long lines() {
+            return text().lines().count();
+        }
+    }
+
+    @Test
+    void publish_WritesFormattedLinesToMatchingChannel() throws Exception {
+        GatedChannel out = new GatedChannel(true);
+        GatedChannel err = new GatedChannel(true);
+        RingBufferLogBackend backend = new RingBufferLogBackend(16, OverflowPolicy.BLOCK, 1, 4, out, err);
+
+        backend.publish(LogLevel.INFO, "Поиск начат", null);
+        backend.publish(LogLevel.ERROR, "Ошибка", new IllegalStateException("boom"));
+        backend.close();
+
+        assertThat(out.text())
+                .matches("\\[\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}\\.\\d{3}] \\[main] \\[INFO] Поиск начат\\R");
+        assertThat(err.text())
+                .contains("[ERROR] Ошибка")
+                .contains("java.lang.IllegalStateException: boom");
+        assertThat(backend.getStats().getWritten()).isEqualTo(2);
+        assertThat(backend.getStats().getQueued()).isZero();
+    }
+
+    @Test
+    void publish_DropDebugFirst_ShedsDebugAboveWatermark() throws Exception {
+        GatedChannel out = new GatedChannel(false);
+        RingBufferLogBackend backend = new RingBufferLogBackend(8, OverflowPolicy.DROP_DEBUG_FIRST, 1, 1,
+                out, new GatedChannel(true));
+
+        backend.publish(LogLevel.INFO, "first", null);
+        assertThat(out.writeStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        for (int i = 0; i < 20; i++) {
+            backend.publish(LogLevel.DEBUG, "debug " + i, null);
+        }
+
+        assertThat(backend.getStats().getDropped()).isEqualTo(14);
+        assertThat(backend.getStats().getQueued()).isEqualTo(6);
+
+        out.gate.countDown();
+        backend.close();
+
+        assertThat(out.lines()).isEqualTo(7);
+    }
+
+    @Test
+    void publish_Block_LosesNothingWhenRingIsFull() throws Exception {
+        GatedChannel out = new GatedChannel(false);
+        RingBufferLogBackend backend = new RingBufferLogBackend(4, OverflowPolicy.BLOCK, 1, 1,
+                out, new GatedChannel(true));
+
+        backend.publish(LogLevel.INFO, "first", null);
+        assertThat(out.writeStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < 20; i++) {
+                backend.publish(LogLevel.DEBUG, "debug " + i, null);
+            }
+        });
+        producer.start();
+
+        out.gate.countDown();
+        producer.join(TimeUnit.SECONDS.toMillis(5));
+        backend.close();
+
+        assertThat(backend.getStats().getDropped()).isZero();
+        assertThat(out.lines()).isEqualTo(21);
+    }
+
+    @Test
+    void publish_Template_SubstitutesPlaceholdersOnLoggingThread() throws Exception {
+        GatedChannel out = new GatedChannel(true);
+        RingBufferLogBackend backend = new RingBufferLogBackend(16, OverflowPolicy.BLOCK, 1, 4,
+                out, new GatedChannel(true));
+
+        backend.publish(LogLevel.INFO, "Город: {}, запрос: {}, лишний: {}", 2, "Москва", 42, null);
+        backend.publish(LogLevel.INFO, "Найдено: {}", 1, null, null, null);
+        backend.close();
+
+        assertThat(out.text())
+                .contains("[INFO] Город: Москва, запрос: 42, лишний: {}")
+                .contains("[INFO] Найдено: null");
+    }
+
+    @Test
+    void publish_ThrowingArgumentOrThrowable_WritesFallbackAndKeepsDraining() throws Exception {
+        GatedChannel out = new GatedChannel(true);
+        GatedChannel err = new GatedChannel(true);
+        RingBufferLogBackend backend = new RingBufferLogBackend(2, OverflowPolicy.BLOCK, 1, 1, out, err);
+        Object broken = new Object() {
+            @Override
+            public String toString() {
+                throw new IllegalStateException("toString");
+            }
+        };
+        Throwable brokenTrace = new IllegalStateException() {
+            @Override
+            public void printStackTrace(PrintWriter writer) {
+                throw new UnsupportedOperationException("trace");
+            }
+        };
+
+        backend.publish(LogLevel.INFO, "Аргумент: {}", 1, broken, null, null);
+        backend.publish(LogLevel.ERROR, "Ошибка", brokenTrace);
+        for (int i = 0; i < 8; i++) {
+            backend.publish(LogLevel.INFO, "Строка " + i, null);
+        }
+        backend.close();
+
+        assertThat(out.text())
+                .contains("[INFO] Аргумент: {} [не удалось сформировать запись: java.lang.IllegalStateException]")
+                .contains("Строка 7");
+        assertThat(err.text())
+                .contains("[ERROR] Ошибка [не удалось сформировать запись: java.lang.UnsupportedOperationException]");
+        assertThat(backend.getStats().getWritten()).isEqualTo(10);
+        assertThat(backend.getStats().getQueued()).isZero();
+    }
+}
@@ -0,0 +1,92 @@
+package _gis.company_search.service;
+
+import _gis.company_search.exception.DoubleGisApiException;
+import _gis.company_search.exception.GisCircuitOpenException;
+import _gis.company_search.exception.GisRateLimitedException;
+import _gis.company_search.logging.AsyncLogger;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class GisCircuitBreakerTest {
+
+    private static GisCircuitBreaker breaker(Duration openDuration) {
+        return new GisCircuitBreaker(true, 4, 4, 50, openDuration, 2, mock(AsyncLogger.class));
+    }
+
+    private static void call(GisCircuitBreaker breaker, Mono<String> result) {
+        breaker.execute(() -> result).onErrorResume(error -> Mono.empty()).block();
+    }
+
+    @Test
+    void execute_FailureRateReached_OpensAndRejectsWithoutCalling() {
+        GisCircuitBreaker breaker = breaker(Duration.ofMinutes(1));
+        call(breaker, Mono.just("ok"));
+        call(breaker, Mono.just("ok"));
+        call(breaker, Mono.error(new DoubleGisApiException(503)));
+        call(breaker, Mono.error(new DoubleGisApiException(500)));
+
+        AtomicInteger calls = new AtomicInteger();
+        StepVerifier.create(breaker.execute(() -> {
+                    calls.incrementAndGet();
+                    return Mono.just("ok");
+                }))
+                .expectError(GisCircuitOpenException.class)
+                .verify();
+
+        assertThat(calls.get()).isZero();
+        assertThat(breaker.getStats().getState()).isEqualTo("OPEN");
+        assertThat(breaker.getStats().getOpened()).isEqualTo(1);
+        assertThat(breaker.getStats().getRejected()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_ClientErrorsAndLocalRejections_DoNotOpen() {
+        GisCircuitBreaker breaker = breaker(Duration.ofMinutes(1));
+        for (int i = 0; i < 4; i++) {
+            call(breaker, Mono.error(new DoubleGisApiException(404)));
+            call(breaker, Mono.error(new GisRateLimitedException()));
+        }
+
+        assertThat(breaker.getStats().getState()).isEqualTo("CLOSED");
+        assertThat(breaker.getStats().getFailureRate()).isZero();
+        assertThat(breaker.getStats().getBufferedCalls()).isEqualTo(4);
+    }
+
+    @Test
+    void execute_HalfOpenProbesSucceed_Closes() {
+        GisCircuitBreaker breaker = breaker(Duration.ZERO);
+        for (int i = 0; i < 4; i++) {
+            call(breaker, Mono.error(new DoubleGisApiException(503)));
+        }
+        assertThat(breaker.getStats().getOpened()).isEqualTo(1);
+
+        call(breaker, Mono.just("ok"));
+        assertThat(breaker.getStats().getState()).isEqualTo("HALF_OPEN");
+        call(breaker, Mono.just("ok"));
+
+        assertThat(breaker.getStats().getState()).isEqualTo("CLOSED");
+        assertThat(breaker.getStats().getHalfOpened()).isEqualTo(1);
+        assertThat(breaker.getStats().getClosed()).isEqualTo(1);
+        assertThat(breaker.getStats().getBufferedCalls()).isZero();
+    }
+
+    @Test
+    void execute_HalfOpenProbeFails_ReopensImmediately() {
+        GisCircuitBreaker breaker = breaker(Duration.ZERO);
+        for (int i = 0; i < 4; i++) {
+            call(breaker, Mono.error(new DoubleGisApiException(503)));
+        }
+
+        call(breaker, Mono.error(new DoubleGisApiException(503)));
+
+        assertThat(breaker.getStats().getState()).isEqualTo("OPEN");
+        assertThat(breaker.getStats().getOpened()).isEqualTo(2);
+    }
+}
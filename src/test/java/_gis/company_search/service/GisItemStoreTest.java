@@ -0,0 +1,91 @@
+package _gis.company_search.service;
+
+import _gis.company_search.dto.GisItem;
+import _gis.company_search.entity.GisItemEntity;
+import _gis.company_search.entity.SearchResultItemEntity;
+import _gis.company_search.repository.GisItemRepository;
+import _gis.company_search.repository.SearchResultItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+class GisItemStoreTest {
+    private GisItemRepository gisItemRepository;
+    private SearchResultItemRepository searchResultItemRepository;
+    private GisItemStore store;
+
+    @BeforeEach
+    void setUp() {
+        gisItemRepository = mock(GisItemRepository.class);
+        searchResultItemRepository = mock(SearchResultItemRepository.class);
+        store = new GisItemStore(gisItemRepository, searchResultItemRepository);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void storeAll_InsertsNewUpdatesChangedAndSkipsUnchangedItems() {
+        GisItem unchanged = new GisItem("1", "Кофейня", "Тверская улица, 10");
+        GisItem changed = new GisItem("2", "Пекарня", "Арбат, 7");
+        GisItem fresh = new GisItem("3", "Бар", "Невский проспект, 1");
+
+        GisItemEntity storedUnchanged = new GisItemEntity("1", "Кофейня", "Тверская улица, 10",
+                GisItemStore.contentHash(unchanged));
+        GisItemEntity storedChanged = new GisItemEntity("2", "Пекарня", "Арбат, 5",
+                GisItemStore.contentHash(new GisItem("2", "Пекарня", "Арбат, 5")));
+        when(gisItemRepository.findAllById(anyIterable())).thenReturn(List.of(storedUnchanged, storedChanged));
+
+        Map<Long, List<GisItem>> items = new LinkedHashMap<>();
+        items.put(10L, List.of(unchanged, changed));
+        items.put(11L, List.of(fresh, unchanged));
+        store.storeAll(items);
+
+        ArgumentCaptor<List<GisItemEntity>> inserts = ArgumentCaptor.forClass(List.class);
+        verify(gisItemRepository).saveAll(inserts.capture());
+        assertThat(inserts.getValue()).extracting(GisItemEntity::getId).containsExactly("3");
+        assertThat(storedChanged.getAddress()).isEqualTo("Арбат, 7");
+        assertThat(storedChanged.getContentHash()).isEqualTo(GisItemStore.contentHash(changed));
+
+        ArgumentCaptor<List<SearchResultItemEntity>> links = ArgumentCaptor.forClass(List.class);
+        verify(searchResultItemRepository).saveAll(links.capture());
+        assertThat(links.getValue())
+                .extracting(link -> link.getSearchResultId() + ":" + link.getRank() + ":" + link.getItemId())
+                .containsExactly("10:0:1", "10:1:2", "11:0:3", "11:1:1");
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void storeAll_ItemWithoutId_IsKeyedByContentHash() {
+        GisItem anonymous = new GisItem("", "Киоск", "Площадь, 1");
+        when(gisItemRepository.findAllById(anyIterable())).thenReturn(List.of());
+
+        store.store(12L, List.of(anonymous));
+
+        ArgumentCaptor<List<GisItemEntity>> inserts = ArgumentCaptor.forClass(List.class);
+        verify(gisItemRepository).saveAll(inserts.capture());
+        assertThat(inserts.getValue().get(0).getId())
+                .isEqualTo("~" + Long.toHexString(GisItemStore.contentHash(anonymous)));
+        assertThat(inserts.getValue().get(0).isNew()).isTrue();
+    }
+
+    @Test
+    void loadAll_GroupsRowsBySearchResult() {
+        when(searchResultItemRepository.findItemRows(List.of(1L, 2L))).thenReturn(List.of(
+                new Object[]{1L, "a", "A", "addr a"},
+                new Object[]{1L, "b", "B", "addr b"},
+                new Object[]{2L, "a", "A", "addr a"}
+        ));
+
+        Map<Long, List<GisItem>> items = store.loadAll(List.of(1L, 2L));
+
+        assertThat(items.get(1L)).extracting(GisItem::getId).containsExactly("a", "b");
+        assertThat(items.get(2L)).extracting(GisItem::getName).containsExactly("A");
+    }
+}
@@ -0,0 +1,112 @@
+package _gis.company_search.service;
+
+import _gis.company_search.exception.DoubleGisApiException;
+import _gis.company_search.exception.GisRateLimitedException;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GisRequestLimiterTest {
+
+    private static GisRequestLimiter limiter(double rate, int burst, int concurrency, int maxQueue, Duration maxWait) {
+        return new GisRequestLimiter(true, rate, burst, concurrency, 1, 64, Duration.ofSeconds(1), maxQueue, maxWait);
+    }
+
+    @Test
+    void execute_QueuesCallsAboveConcurrencyLimit_AndAdmitsThemOnRelease() {
+        GisRequestLimiter limiter = limiter(1000, 100, 2, 10, Duration.ofSeconds(5));
+        AtomicInteger started = new AtomicInteger();
+        List<Sinks.One<String>> calls = new ArrayList<>();
+        List<String> results = new ArrayList<>();
+
+        for (int i = 0; i < 3; i++) {
+            Sinks.One<String> call = Sinks.one();
+            calls.add(call);
+            limiter.execute(() -> {
+                started.incrementAndGet();
+                return call.asMono();
+            }).subscribe(results::add);
+        }
+
+        assertThat(started).hasValue(2);
+        assertThat(limiter.getStats().getQueued()).isEqualTo(1);
+
+        calls.get(0).tryEmitValue("first");
+
+        assertThat(started).hasValue(3);
+        assertThat(results).containsExactly("first");
+        assertThat(limiter.getStats().getQueued()).isZero();
+    }
+
+    @Test
+    void execute_FullQueue_RejectsImmediately() {
+        GisRequestLimiter limiter = limiter(1000, 100, 1, 0, Duration.ofSeconds(5));
+        limiter.execute(Mono::never).subscribe();
+
+        StepVerifier.create(limiter.execute(() -> Mono.just("late")))
+                .expectError(GisRateLimitedException.class)
+                .verify(Duration.ofSeconds(1));
+        assertThat(limiter.getStats().getRejected()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_WaitLongerThanMaxWait_TimesOut() {
+        GisRequestLimiter limiter = limiter(1000, 100, 1, 10, Duration.ofMillis(50));
+        limiter.execute(Mono::never).subscribe();
+
+        StepVerifier.create(limiter.execute(() -> Mono.just("late")))
+                .expectError(GisRateLimitedException.class)
+                .verify(Duration.ofSeconds(2));
+        assertThat(limiter.getStats().getTimedOut()).isEqualTo(1);
+        assertThat(limiter.getStats().getQueued()).isZero();
+    }
+
+    @Test
+    void execute_Throttled_HalvesConcurrencyLimit_SuccessGrowsItBack() {
+        GisRequestLimiter limiter = limiter(1000, 100, 8, 10, Duration.ofSeconds(5));
+
+        StepVerifier.create(limiter.execute(() -> Mono.error(new DoubleGisApiException(429))))
+                .expectError(DoubleGisApiException.class)
+                .verify();
+        assertThat(limiter.getStats().getConcurrencyLimit()).isEqualTo(4);
+        assertThat(limiter.getStats().getThrottled()).isEqualTo(1);
+
+        for (int i = 0; i < 5; i++) {
+            limiter.execute(() -> Mono.just("ok")).block();
+        }
+        assertThat(limiter.getStats().getConcurrencyLimit()).isEqualTo(5);
+        assertThat(limiter.getStats().getInFlight()).isZero();
+    }
+
+    @Test
+    void execute_TokenBucket_SpacesRequestsBeyondBurst() {
+        GisRequestLimiter limiter = limiter(20, 2, 10, 10, Duration.ofSeconds(5));
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 4; i++) {
+            limiter.execute(() -> Mono.just("ok")).block(Duration.ofSeconds(2));
+        }
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(80);
+    }
+
+    @Test
+    void execute_Disabled_PassesThrough() {
+        GisRequestLimiter limiter = new GisRequestLimiter(false, 1, 1, 1, 1, 1,
+                Duration.ofSeconds(1), 0, Duration.ofMillis(1));
+        limiter.execute(Mono::never).subscribe();
+
+        StepVerifier.create(limiter.execute(() -> Mono.just("ok")))
+                .expectNext("ok")
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,137 @@
+package _gis.company_search.service;
+
+import _gis.company_search.dto.GisItem;
+import _gis.company_search.exception.ResponseParseException;
+import _gis.company_search.logging.AsyncLogger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class GisResponseParserTest {
+
+    private static final String RESPONSE = """
+            {
+                "meta": {"api_version": "3.0", "code": 200, "name": "meta"},
+                "result": {
+                    "total": 2,
+                    "name": "not an item",
+                    "items": [
+                        {
+                            "id": "70000001000123456",
+                            "name": "Кофейня №1",
+                            "rubrics": [{"id": "r1", "name": "Кофейни"}],
+                            "point": {"lat": 55.75, "lon": 37.61},
+                            "address_name": "Тверская улица, 10"
+                        },
+                        {
+                            "address_name": "Никольская улица, 25",
+                            "name": "Coffee Point",
+                            "id": "70000001000765432",
+                            "schedule": {"Mon": {"working_hours": [{"from": "08:00", "to": "22:00"}]}}
+                        }
+                    ]
+                }
+            }
+            """;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AsyncLogger asyncLogger = mock(AsyncLogger.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final PipelineMetrics metrics = new PipelineMetrics(registry);
+
+    private static Flux<DataBuffer> chunks(String body, int chunkSize) {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        return Flux.range(0, (bytes.length + chunkSize - 1) / chunkSize)
+                .map(i -> DefaultDataBufferFactory.sharedInstance.wrap(
+                        Arrays.copyOfRange(bytes, i * chunkSize, Math.min(bytes.length, (i + 1) * chunkSize))));
+    }
+
+    @Test
+    void parse_Streaming_ExtractsOnlyItemFields() {
+        GisResponseParser parser = new GisResponseParser(objectMapper, asyncLogger, metrics, true);
+
+        StepVerifier.create(parser.parse(chunks(RESPONSE, 7)))
+                .assertNext(response -> {
+                    assertThat(response.getItems())
+                            .extracting(GisItem::getId)
+                            .containsExactly("70000001000123456", "70000001000765432");
+                    assertThat(response.getItems())
+                            .extracting(GisItem::getName)
+                            .containsExactly("Кофейня №1", "Coffee Point");
+                    assertThat(response.getItems())
+                            .extracting(GisItem::getAddress)
+                            .containsExactly("Тверская улица, 10", "Никольская улица, 25");
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void parse_StreamingAndTree_ProduceSameItems() {
+        GisResponseParser streaming = new GisResponseParser(objectMapper, asyncLogger, metrics, true);
+        GisResponseParser tree = new GisResponseParser(objectMapper, asyncLogger, metrics, false);
+
+        var fromStream = streaming.parse(chunks(RESPONSE, 1)).block();
+        var fromTree = tree.parse(chunks(RESPONSE, 64)).block();
+
+        assertThat(fromStream.getItems())
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(fromTree.getItems());
+    }
+
+    @Test
+    void parse_Streaming_MissingItems_ReturnsEmptyList() {
+        GisResponseParser parser = new GisResponseParser(objectMapper, asyncLogger, metrics, true);
+
+        StepVerifier.create(parser.parse(chunks("{\"meta\": {\"code\": 200}}", 5)))
+                .assertNext(response -> assertThat(response.getItems()).isEmpty())
+                .verifyComplete();
+    }
+
+    @Test
+    void parse_Streaming_TruncatedBody_Fails() {
+        GisResponseParser parser = new GisResponseParser(objectMapper, asyncLogger, metrics, true);
+
+        StepVerifier.create(parser.parse(chunks(RESPONSE.substring(0, RESPONSE.length() / 2), 16)))
+                .expectError(ResponseParseException.class)
+                .verify();
+    }
+
+    @Test
+    void parse_Streaming_DownstreamDiscardHook_ReleasesEveryBufferOnce() {
+        GisResponseParser parser = new GisResponseParser(objectMapper, asyncLogger, metrics, true);
+        NettyDataBufferFactory factory = new NettyDataBufferFactory(UnpooledByteBufAllocator.DEFAULT);
+        byte[] bytes = RESPONSE.getBytes(StandardCharsets.UTF_8);
+        List<NettyDataBuffer> buffers = new ArrayList<>();
+        for (int offset = 0; offset < bytes.length; offset += 64) {
+            NettyDataBuffer buffer = factory.allocateBuffer(64);
+            buffer.write(bytes, offset, Math.min(64, bytes.length - offset));
+            buffer.getNativeBuffer().retain();
+            buffers.add(buffer);
+        }
+
+        // The WebFlux response encoder releases discarded DataBuffers the same way. The extra reference
+        // taken above keeps a second release visible: errors thrown by discard hooks are only logged.
+        StepVerifier.create(parser.parse(Flux.fromIterable(buffers))
+                        .doOnDiscard(DataBuffer.class, DataBufferUtils::release))
+                .assertNext(response -> assertThat(response.getItems()).hasSize(2))
+                .verifyComplete();
+
+        assertThat(buffers).allSatisfy(buffer -> assertThat(buffer.getNativeBuffer().refCnt()).isEqualTo(1));
+    }
+}
@@ -3,7 +3,12 @@ package _gis.company_search.service;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -31,4 +36,69 @@ class HashServiceTest {
 
         assertEquals(hash1, hash2);
     }
-}
\ No newline at end of file
+
+    @Test
+    void hashString_ShouldBeHmacSha256OfInput() throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec("testKey".getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        String expected = Base64.getEncoder().encodeToString(mac.doFinal("пароль".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals("h1$" + expected, hashService.hashString("пароль"));
+    }
+
+    @Test
+    void matches_ShouldAcceptOwnHash_AndRejectOthers() {
+        String stored = hashService.hashString("password1");
+
+        assertTrue(hashService.matches("password1", stored));
+        assertFalse(hashService.matches("password2", stored));
+        assertFalse(hashService.matches("password1", stored.substring(0, stored.length() - 1)));
+        assertFalse(hashService.matches("password1", null));
+        assertFalse(hashService.needsRehash(stored));
+    }
+
+    @Test
+    void matches_ShouldAcceptLegacyHash_AndAskForRehash() throws NoSuchAlgorithmException {
+        byte[] digest = MessageDigest.getInstance("SHA-256")
+                .digest("password1testKey".getBytes(StandardCharsets.UTF_8));
+        String legacy = Base64.getEncoder().encodeToString(digest);
+
+        assertTrue(hashService.matches("password1", legacy));
+        assertFalse(hashService.matches("password2", legacy));
+        assertTrue(hashService.needsRehash(legacy));
+    }
+
+    @Test
+    void matches_ShouldHandleInputsLongerThanTheBuffer() {
+        String longPassword = "д".repeat(500);
+        String stored = hashService.hashString(longPassword);
+
+        assertTrue(hashService.matches(longPassword, stored));
+        assertFalse(hashService.matches(longPassword + "x", stored));
+    }
+
+    @Test
+    void hashString_UnpairedSurrogate_HashesWholeInputLikeGetBytes() throws Exception {
+        String password = "abc\uD800xyz";
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec("testKey".getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        String expected = Base64.getEncoder().encodeToString(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+
+        String stored = hashService.hashString(password);
+
+        assertEquals("h1$" + expected, stored);
+        assertFalse(hashService.matches("abc", stored));
+        assertTrue(hashService.matches(password, stored));
+    }
+
+    @Test
+    void matches_LegacyHashWithUnpairedSurrogate_StillMatches() throws NoSuchAlgorithmException {
+        String password = "abc\uD800xyz";
+        byte[] digest = MessageDigest.getInstance("SHA-256")
+                .digest((password + "testKey").getBytes(StandardCharsets.UTF_8));
+        String legacy = Base64.getEncoder().encodeToString(digest);
+
+        assertTrue(hashService.matches(password, legacy));
+        assertFalse(hashService.matches("abc", legacy));
+    }
+}
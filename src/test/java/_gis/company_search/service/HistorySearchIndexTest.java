@@ -0,0 +1,128 @@
+package _gis.company_search.service;
+
+import _gis.company_search.dto.GisItem;
+import _gis.company_search.dto.HistorySearchResult;
+import _gis.company_search.dto.SearchResultSummaryDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HistorySearchIndexTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    private HistorySearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new HistorySearchIndex(1000);
+        hold(index, 1L);
+        hold(index, 2L);
+        index.add(summary(1L, 1L, "Москва", "кофе", NOW.minusDays(2)),
+                List.of(new GisItem("a", "Кофемания", "Тверская улица, 10")));
+        index.add(summary(2L, 1L, "Москва", "Пиццерия рядом", NOW.minusDays(1)),
+                List.of(new GisItem("b", "Додо Пицца", "Арбат, 5")));
+        index.add(summary(3L, 1L, "Казань", "кофейня", NOW),
+                List.of(new GisItem("c", "Double B", "Баумана, 1")));
+        index.add(summary(4L, 2L, "Москва", "кофе", NOW),
+                List.of());
+    }
+
+    private static SearchResultSummaryDto summary(long id, long userId, String city, String query, LocalDateTime at) {
+        return new SearchResultSummaryDto(id, userId, city, query, at, 1);
+    }
+
+    private static void hold(HistorySearchIndex target, Long userId, SearchResultSummaryDto... history) {
+        target.search(userId, null, "", 0, 1, (id, capacity, sink) -> {
+            for (SearchResultSummaryDto summary : history) {
+                sink.accept(summary, List.of());
+            }
+            return false;
+        });
+    }
+
+    private static List<Long> ids(HistorySearchResult result) {
+        return result.getItems().stream().map(SearchResultSummaryDto::getId).toList();
+    }
+
+    @Test
+    void search_RanksExactQueryThenQueryThenItemsThenRecency() {
+        index.add(summary(5L, 1L, "Москва", "еда", NOW), List.of(new GisItem("d", "Кофе Хауз", "Ленина, 2")));
+
+        HistorySearchResult result = index.search(1L, null, "  КОФЕ ", 0, 10);
+
+        assertThat(ids(result)).containsExactly(1L, 3L, 5L);
+        assertThat(result.getTotal()).isEqualTo(3);
+    }
+
+    @Test
+    void search_MatchesSubstringsOfStoredItems_AndIsolatesUsers() {
+        assertThat(ids(index.search(1L, null, "арбат", 0, 10))).containsExactly(2L);
+        assertThat(ids(index.search(2L, null, "арбат", 0, 10))).isEmpty();
+        assertThat(ids(index.search(1L, null, "баумана, 2", 0, 10))).isEmpty();
+    }
+
+    @Test
+    void search_ShortNeedleAndCityFilter() {
+        assertThat(ids(index.search(1L, null, "b", 0, 10))).containsExactly(3L);
+        assertThat(ids(index.search(1L, "Москва", "коф", 0, 10))).containsExactly(1L);
+    }
+
+    @Test
+    void search_PaginatesRankedHits_AndIgnoresDuplicates() {
+        index.add(summary(3L, 1L, "Казань", "кофейня", NOW), List.of());
+
+        HistorySearchResult first = index.search(1L, null, "о", 0, 2);
+        HistorySearchResult second = index.search(1L, null, "о", 2, 2);
+
+        assertThat(first.getTotal()).isEqualTo(3);
+        assertThat(ids(first)).hasSize(2);
+        assertThat(ids(second)).hasSize(1);
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    void search_ColdUser_NeedsLoading_AndIgnoresAdds() {
+        index.add(summary(9L, 3L, "Москва", "кофе", NOW), List.of());
+
+        assertThat(index.search(3L, null, "кофе", 0, 10)).isNull();
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    void search_OverCap_EvictsLeastRecentlyUsedUsersWhole() {
+        HistorySearchIndex capped = new HistorySearchIndex(4);
+        hold(capped, 1L, summary(1L, 1L, "Москва", "кофе 1", NOW), summary(2L, 1L, "Москва", "кофе 2", NOW));
+        hold(capped, 2L, summary(3L, 2L, "Москва", "кофе 3", NOW), summary(4L, 2L, "Москва", "кофе 4", NOW));
+        capped.search(1L, null, "кофе", 0, 10);
+
+        hold(capped, 3L, summary(5L, 3L, "Москва", "кофе 5", NOW));
+
+        assertThat(capped.search(2L, null, "кофе", 0, 10)).isNull();
+        assertThat(ids(capped.search(1L, null, "кофе", 0, 10))).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(ids(capped.search(3L, null, "кофе", 0, 10))).containsExactly(5L);
+        assertThat(capped.size()).isEqualTo(3);
+    }
+
+    @Test
+    void search_HistoryOverCap_KeepsNewestAndReportsTruncated() {
+        HistorySearchIndex capped = new HistorySearchIndex(2);
+
+        HistorySearchResult result = capped.search(1L, null, "кофе", 0, 10, (userId, capacity, sink) -> {
+            for (long id = 3; id >= 1; id--) {
+                if (id == 3 - capacity) {
+                    return true;
+                }
+                sink.accept(summary(id, userId, "Москва", "кофе " + id, NOW.plusMinutes(id)), List.of());
+            }
+            return false;
+        });
+
+        assertThat(ids(result)).containsExactly(3L, 2L);
+        assertThat(result.isTruncated()).isTrue();
+        assertThat(capped.search(1L, null, "кофе", 0, 10).isTruncated()).isTrue();
+    }
+}
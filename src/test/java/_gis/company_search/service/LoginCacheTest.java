@@ -0,0 +1,53 @@
+package _gis.company_search.service;
+
+import _gis.company_search.entity.UserEntity;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginCacheTest {
+
+    private static UserEntity user(String email) {
+        UserEntity user = new UserEntity("Test", email, "h1$hash");
+        user.setId(1L);
+        return user;
+    }
+
+    @Test
+    void get_ReturnsDetachedCopy() {
+        LoginCache cache = new LoginCache(true, Duration.ofMinutes(1), 10);
+        cache.put(user("a@mail.com"));
+
+        UserEntity first = cache.get("a@mail.com");
+        first.setPassword("changed");
+
+        assertThat(cache.get("a@mail.com").getPassword()).isEqualTo("h1$hash");
+        assertThat(cache.getStats().getHits()).isEqualTo(2);
+    }
+
+    @Test
+    void get_ExpiredOrInvalidated_Misses() {
+        LoginCache expiring = new LoginCache(true, Duration.ZERO, 10);
+        expiring.put(user("a@mail.com"));
+        assertThat(expiring.get("a@mail.com")).isNull();
+
+        LoginCache cache = new LoginCache(true, Duration.ofMinutes(1), 10);
+        cache.put(user("a@mail.com"));
+        cache.invalidate("a@mail.com");
+        assertThat(cache.get("a@mail.com")).isNull();
+        assertThat(cache.getStats().getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    void put_OverMaxSize_EvictsLeastRecentlyUsed() {
+        LoginCache cache = new LoginCache(true, Duration.ofMinutes(1), 1);
+        cache.put(user("a@mail.com"));
+        cache.put(user("b@mail.com"));
+
+        assertThat(cache.get("a@mail.com")).isNull();
+        assertThat(cache.get("b@mail.com")).isNotNull();
+        assertThat(cache.getStats().getEvictions()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,60 @@
+package _gis.company_search.service;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PipelineMetricsTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final PipelineMetrics metrics = new PipelineMetrics(registry);
+
+    @Test
+    void time_TagsOutcomeAndException() {
+        StepVerifier.create(metrics.timeResults("save", Mono.just(1))).expectNext(1).verifyComplete();
+        StepVerifier.create(metrics.timeResults("save", Mono.empty())).verifyComplete();
+        StepVerifier.create(metrics.timeResults("save", Mono.error(new IllegalStateException())))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        assertThat(registry.get(PipelineMetrics.RESULTS)
+                .tags("operation", "save", "outcome", "success", "exception", "none").timer().count()).isEqualTo(2);
+        assertThat(registry.get(PipelineMetrics.RESULTS)
+                .tags("operation", "save", "outcome", "error", "exception", "IllegalStateException").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void time_CountsOnlyTheFirstSignal() {
+        Mono<Integer> timed = metrics.time(PipelineMetrics.LOGIN, Tags.empty(), Mono.just(1));
+
+        StepVerifier.create(timed.flux().take(1)).expectNext(1).verifyComplete();
+        StepVerifier.create(metrics.time(PipelineMetrics.LOGIN, Tags.empty(), Mono.never()))
+                .expectSubscription()
+                .thenCancel()
+                .verify(Duration.ofSeconds(1));
+
+        assertThat(registry.get(PipelineMetrics.LOGIN).tag("outcome", "success").timer().count()).isEqualTo(1);
+        assertThat(registry.get(PipelineMetrics.LOGIN).tag("outcome", "cancelled").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void timers_PublishPercentileHistograms() {
+        PrometheusMeterRegistry prometheus = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        PipelineMetrics scraped = new PipelineMetrics(prometheus);
+
+        StepVerifier.create(scraped.timeResults("history_page", Mono.just(1))).expectNextCount(1).verifyComplete();
+        scraped.recordBodySize(1024);
+
+        assertThat(prometheus.scrape())
+                .contains("search_results_seconds_bucket{")
+                .contains("gis_response_size_bytes_bucket{");
+    }
+}
@@ -0,0 +1,142 @@
+package _gis.company_search.service;
+
+import _gis.company_search.dto.GisItem;
+import _gis.company_search.dto.GisSearchResponse;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchCacheTest {
+
+    private static GisSearchResponse response(String id) {
+        return new GisSearchResponse(List.of(new GisItem(id, "name", "address")));
+    }
+
+    @Test
+    void get_SameNormalizedKey_LoadsOnce() {
+        SearchCache cache = new SearchCache(true, Duration.ofMinutes(1), 10, Duration.ZERO);
+        AtomicInteger loads = new AtomicInteger();
+
+        StepVerifier.create(cache.get("Москва", "кафе", 1, 10,
+                        () -> Mono.fromSupplier(() -> response(String.valueOf(loads.incrementAndGet())))))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        StepVerifier.create(cache.get("  МОСКВА ", "Кафе", 1, 10,
+                        () -> Mono.fromSupplier(() -> response(String.valueOf(loads.incrementAndGet())))))
+                .assertNext(result -> assertThat(result.getItems().get(0).getId()).isEqualTo("1"))
+                .verifyComplete();
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.getStats().getHits()).isEqualTo(1);
+        assertThat(cache.getStats().getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    void get_ConcurrentMisses_CoalesceOntoOneLoad() {
+        SearchCache cache = new SearchCache(true, Duration.ofMinutes(1), 10, Duration.ZERO);
+        AtomicInteger loads = new AtomicInteger();
+        Sinks.One<GisSearchResponse> upstream = Sinks.one();
+
+        Flux<GisSearchResponse> burst = Flux.range(0, 5)
+                .flatMap(i -> cache.get("Москва", "кафе", 1, 10, () -> {
+                    loads.incrementAndGet();
+                    return upstream.asMono();
+                }));
+
+        StepVerifier.create(burst)
+                .then(() -> upstream.tryEmitValue(response("1")))
+                .expectNextCount(5)
+                .verifyComplete();
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.getStats().getCoalesced()).isEqualTo(4);
+        assertThat(cache.getStats().getInFlight()).isZero();
+    }
+
+    @Test
+    void get_FailedLoad_IsNotCached() {
+        SearchCache cache = new SearchCache(true, Duration.ofMinutes(1), 10, Duration.ZERO);
+        AtomicInteger loads = new AtomicInteger();
+
+        StepVerifier.create(cache.get("Москва", "кафе", 1, 10, () -> {
+                    loads.incrementAndGet();
+                    return Mono.error(new RuntimeException("upstream"));
+                }))
+                .expectError(RuntimeException.class)
+                .verify();
+
+        StepVerifier.create(cache.get("Москва", "кафе", 1, 10, () -> {
+                    loads.incrementAndGet();
+                    return Mono.just(response("1"));
+                }))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void get_ExpiredEntry_ReloadsFromUpstream() {
+        SearchCache cache = new SearchCache(true, Duration.ZERO, 10, Duration.ZERO);
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(cache.get("Москва", "кафе", 1, 10,
+                            () -> Mono.fromSupplier(() -> response(String.valueOf(loads.incrementAndGet())))))
+                    .expectNextCount(1)
+                    .verifyComplete();
+        }
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void get_OverMaxSize_EvictsLeastRecentlyUsed() {
+        SearchCache cache = new SearchCache(true, Duration.ofMinutes(1), 1, Duration.ZERO);
+
+        cache.get("Москва", "кафе", 1, 10, () -> Mono.just(response("1"))).block();
+        cache.get("Москва", "бар", 1, 10, () -> Mono.just(response("2"))).block();
+
+        assertThat(cache.getStats().getSize()).isEqualTo(1);
+        assertThat(cache.getStats().getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    void get_StaleEntry_ServedWhileOneBackgroundLoadRefreshesIt() {
+        SearchCache cache = new SearchCache(true, Duration.ZERO, 10, Duration.ofMinutes(1));
+        cache.get("Москва", "кафе", 1, 10, () -> Mono.just(response("1"))).block();
+
+        AtomicInteger loads = new AtomicInteger();
+        Sinks.One<GisSearchResponse> upstream = Sinks.one();
+        Supplier<Mono<GisSearchResponse>> refresh = () -> {
+            loads.incrementAndGet();
+            return upstream.asMono();
+        };
+
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(cache.get("Москва", "кафе", 1, 10, refresh))
+                    .assertNext(result -> {
+                        assertThat(result.isStale()).isTrue();
+                        assertThat(result.getItems().get(0).getId()).isEqualTo("1");
+                    })
+                    .verifyComplete();
+        }
+        assertThat(loads.get()).isEqualTo(1);
+
+        upstream.tryEmitValue(response("2"));
+        StepVerifier.create(cache.get("Москва", "кафе", 1, 10, () -> Mono.just(response("3"))))
+                .assertNext(result -> assertThat(result.getItems().get(0).getId()).isEqualTo("2"))
+                .verifyComplete();
+        assertThat(cache.getStats().getStaleHits()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,77 @@
+package _gis.company_search.service;
+
+import _gis.company_search.dto.GisItem;
+import _gis.company_search.dto.GisSearchResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SearchPayloadCodecTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SearchPayloadCodec codec = new SearchPayloadCodec(objectMapper, true, 256);
+
+    private static GisSearchResponse response(int size) {
+        List<GisItem> items = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            items.add(new GisItem("7000000100012" + i, "Кофейня №" + i, "Тверская улица, " + i));
+        }
+        return new GisSearchResponse(items);
+    }
+
+    @Test
+    void encode_RoundTripsItems() {
+        GisSearchResponse original = response(3);
+        original.getItems().add(new GisItem("x", null, ""));
+
+        GisSearchResponse decoded = codec.decode(codec.encode(original));
+
+        assertThat(decoded.getItems()).extracting(GisItem::getId)
+                .containsExactly("70000001000120", "70000001000121", "70000001000122", "x");
+        assertThat(decoded.getItems()).extracting(GisItem::getName)
+                .containsExactly("Кофейня №0", "Кофейня №1", "Кофейня №2", "");
+        assertThat(decoded.getItems().get(2).getAddress()).isEqualTo("Тверская улица, 2");
+    }
+
+    @Test
+    void encode_LargePayload_IsDeflatedAndMuchSmallerThanJson() throws Exception {
+        GisSearchResponse original = response(50);
+
+        byte[] payload = codec.encode(original);
+        byte[] json = objectMapper.writeValueAsString(original).getBytes(StandardCharsets.UTF_8);
+
+        assertThat(payload[0] & 0x80).isNotZero();
+        assertThat(payload.length * 3).isLessThan(json.length);
+        assertThat(codec.decode(payload).getItems()).hasSize(50);
+    }
+
+    @Test
+    void decodeJson_ReadsLegacyRows() throws Exception {
+        String legacy = objectMapper.writeValueAsString(response(2));
+
+        assertThat(codec.decodeJson(legacy).getItems()).extracting(GisItem::getAddress)
+                .containsExactly("Тверская улица, 0", "Тверская улица, 1");
+        assertThatThrownBy(() -> codec.decodeJson("not json")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void decode_TruncatedPayload_Fails() {
+        byte[] payload = new SearchPayloadCodec(objectMapper, false, 256).encode(response(2));
+
+        assertThatThrownBy(() -> codec.decode(Arrays.copyOf(payload, payload.length - 3)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void decode_ItemCountBeyondPayload_FailsBeforeAllocating() {
+        byte[] payload = {1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 0, 0, 0};
+
+        assertThatThrownBy(() -> codec.decode(payload)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -1,41 +1,87 @@
 package _gis.company_search.service;
 
+import _gis.company_search.config.BlockingScheduler;
+import _gis.company_search.dto.GisItem;
 import _gis.company_search.dto.GisSearchResponse;
+import _gis.company_search.dto.PendingSearchResult;
+import _gis.company_search.dto.SearchResultSummaryDto;
 import _gis.company_search.entity.SearchResultEntity;
 import _gis.company_search.entity.UserEntity;
+import _gis.company_search.exception.InvalidCursorException;
+import _gis.company_search.exception.SearchResultNotFoundException;
+import _gis.company_search.exception.UserNotFoundException;
+import _gis.company_search.logging.AsyncLogger;
 import _gis.company_search.repository.SearchResultRepository;
 import _gis.company_search.repository.UserRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import reactor.test.StepVerifier;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 public class SearchResultServiceTest {
     private SearchResultRepository searchResultRepository;
     private UserRepository userRepository;
     private ObjectMapper objectMapper;
+    private SearchPayloadCodec payloadCodec;
+    private HistorySearchIndex searchIndex;
+    private GisItemStore itemStore;
+    private PlatformTransactionManager transactionManager;
+    private AsyncLogger asyncLogger;
     private SearchResultService searchResultService;
 
     private UserEntity testUser;
     private SearchResultEntity testEntity;
     private GisSearchResponse testResponse;
 
+    private BlockingScheduler blockingScheduler;
+
     @BeforeEach
     void setUp() throws Exception {
+        blockingScheduler = new BlockingScheduler(true, 2, 100);
         searchResultRepository = mock(SearchResultRepository.class);
         userRepository = mock(UserRepository.class);
         objectMapper = new ObjectMapper();
+        payloadCodec = new SearchPayloadCodec(objectMapper, true, 256);
+        searchIndex = new HistorySearchIndex(1000);
+        itemStore = mock(GisItemStore.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        asyncLogger = mock(AsyncLogger.class);
 
         searchResultService = new SearchResultService(
                 searchResultRepository,
                 userRepository,
-                objectMapper
+                payloadCodec,
+                searchIndex,
+                itemStore,
+                new TransactionTemplate(transactionManager),
+                blockingScheduler,
+                new PipelineMetrics(new SimpleMeterRegistry()),
+                asyncLogger,
+                false,
+                2,
+                100,
+                2
         );
 
         testUser = new UserEntity();
@@ -50,58 +96,191 @@ public class SearchResultServiceTest {
                 testUser,
                 "Москва",
                 "кафе",
-                objectMapper.writeValueAsString(testResponse),
+                payloadCodec.encode(testResponse),
                 0
         );
         testEntity.setId(100L);
     }
 
+    @AfterEach
+    void tearDown() {
+        blockingScheduler.close();
+    }
+
     @Test
     void saveSearchResult_shouldSaveEntity() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(searchResultRepository.save(any(SearchResultEntity.class))).thenReturn(testEntity);
+        when(userRepository.getReferenceById(1L)).thenReturn(testUser);
+        when(searchResultRepository.saveAndFlush(any(SearchResultEntity.class))).thenReturn(testEntity);
 
         StepVerifier.create(searchResultService.saveSearchResult(1L, "Москва", "кафе", testResponse))
                 .expectNextMatches(entity -> entity.getId().equals(100L))
                 .verifyComplete();
 
-        verify(userRepository, times(1)).findById(1L);
-        verify(searchResultRepository, times(1)).save(any(SearchResultEntity.class));
+        verify(userRepository, times(1)).getReferenceById(1L);
+        verify(userRepository, never()).findById(any());
+        verify(searchResultRepository, times(1)).saveAndFlush(any(SearchResultEntity.class));
+    }
+
+    @Test
+    void saveSearchResult_unknownUser_shouldThrowUserNotFound() {
+        when(userRepository.getReferenceById(999L)).thenReturn(new UserEntity());
+        when(searchResultRepository.saveAndFlush(any(SearchResultEntity.class)))
+                .thenThrow(new DataIntegrityViolationException("FK_USER"));
+        when(userRepository.existsById(999L)).thenReturn(false);
+
+        StepVerifier.create(searchResultService.saveSearchResult(999L, "Москва", "кафе", testResponse))
+                .expectError(UserNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void findLatestResponse_shouldDecodeNewestRowAsStale() {
+        GisSearchResponse stored = new GisSearchResponse(List.of(new GisItem("1", "Кафе", "ул. Тестовая, 1")));
+        SearchResultEntity latest = new SearchResultEntity(testUser, "Москва", "кафе", payloadCodec.encode(stored), 1);
+        when(searchResultRepository.findLatest("Москва", "кафе", Limit.of(1))).thenReturn(List.of(latest));
+        when(searchResultRepository.findLatest("Москва", "бар", Limit.of(1))).thenReturn(List.of());
+
+        StepVerifier.create(searchResultService.findLatestResponse("Москва", "кафе"))
+                .assertNext(response -> {
+                    assertThat(response.isStale()).isTrue();
+                    assertThat(response.getItems()).extracting(GisItem::getId).containsExactly("1");
+                })
+                .verifyComplete();
+        StepVerifier.create(searchResultService.findLatestResponse("Москва", "бар"))
+                .verifyComplete();
+    }
+
+    private SearchResultSummaryDto historyRow(long id, LocalDateTime createdAt) {
+        return new SearchResultSummaryDto(id, 1L, "Москва", "кафе", createdAt, 0);
     }
 
     @Test
-    void getUserSearchHistory_shouldReturnDtoList() {
-        when(searchResultRepository.findByUserIdOrderByCreatedAtDesc(1L))
-                .thenReturn(List.of(testEntity));
+    void getUserSearchHistory_firstPage_shouldReturnLimitAndCursor() {
+        LocalDateTime now = LocalDateTime.of(2024, 5, 1, 12, 0);
+        when(searchResultRepository.findHistoryPage(1L, null, null, Limit.of(3)))
+                .thenReturn(List.of(historyRow(3L, now), historyRow(2L, now), historyRow(1L, now.minusMinutes(1))));
 
-        StepVerifier.create(searchResultService.getUserSearchHistory(1L))
-                .expectNextMatches(list -> list.size() == 1 &&
-                        list.get(0).getId().equals(100L) &&
-                        list.get(0).getUserName().equals("John Doe"))
+        StepVerifier.create(searchResultService.getUserSearchHistory(1L, null, null, null, null))
+                .assertNext(page -> {
+                    assertThat(page.getItems()).extracting(SearchResultSummaryDto::getId).containsExactly(3L, 2L);
+                    assertThat(page.getItems().get(0).getResultsCount()).isZero();
+                    assertThat(HistoryCursor.decode(page.getNextCursor())).isEqualTo(new HistoryCursor(now, 2L));
+                })
                 .verifyComplete();
+    }
 
-        verify(searchResultRepository, times(1)).findByUserIdOrderByCreatedAtDesc(1L);
+    @Test
+    void getUserSearchHistory_withCursor_shouldSeekPastLastRow() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 12, 0);
+        String cursor = new HistoryCursor(createdAt, 2L).encode();
+        when(searchResultRepository.findHistoryPageAfter(1L, "Москва", null, createdAt, 2L, Limit.of(6)))
+                .thenReturn(List.of(historyRow(1L, createdAt.minusMinutes(1))));
+
+        StepVerifier.create(searchResultService.getUserSearchHistory(1L, "Москва", null, cursor, 5))
+                .assertNext(page -> {
+                    assertThat(page.getItems()).extracting(SearchResultSummaryDto::getId).containsExactly(1L);
+                    assertThat(page.getNextCursor()).isNull();
+                })
+                .verifyComplete();
     }
 
     @Test
-    void getUserSearchHistoryWithFilters_shouldReturnFilteredDtoList() {
-        when(searchResultRepository.findByUserIdWithFilters(1L, "Москва", "кафе"))
-                .thenReturn(List.of(testEntity));
+    void getUserSearchHistory_withQuery_shouldFilterPagesByQuery() {
+        LocalDateTime now = LocalDateTime.of(2024, 5, 1, 12, 0);
+        when(searchResultRepository.findHistoryPage(1L, "Москва", "каф", Limit.of(3)))
+                .thenReturn(List.of(historyRow(7L, now)));
 
-        StepVerifier.create(searchResultService.getUserSearchHistoryWithFilters(1L, "Москва", "кафе"))
-                .expectNextMatches(list -> list.size() == 1 &&
-                        list.get(0).getCity().equals("Москва") &&
-                        list.get(0).getQuery().equals("кафе"))
+        StepVerifier.create(searchResultService.getUserSearchHistory(1L, "Москва", "каф", null, 2))
+                .assertNext(page -> assertThat(page.getItems()).extracting(SearchResultSummaryDto::getId).containsExactly(7L))
                 .verifyComplete();
+    }
+
+    @Test
+    void getUserSearchHistory_invalidCursor_shouldFail() {
+        StepVerifier.create(searchResultService.getUserSearchHistory(1L, null, null, "not-a-cursor", null))
+                .expectError(InvalidCursorException.class)
+                .verify();
 
-        verify(searchResultRepository, times(1)).findByUserIdWithFilters(1L, "Москва", "кафе");
+        verifyNoInteractions(searchResultRepository);
+    }
+
+    @Test
+    void streamUserSearchHistory_shouldWalkAllPages() {
+        LocalDateTime now = LocalDateTime.of(2024, 5, 1, 12, 0);
+        when(searchResultRepository.findHistoryPage(1L, null, null, Limit.of(3)))
+                .thenReturn(List.of(historyRow(5L, now), historyRow(4L, now), historyRow(3L, now)));
+        when(searchResultRepository.findHistoryPageAfter(1L, null, null, now, 4L, Limit.of(3)))
+                .thenReturn(List.of(historyRow(3L, now), historyRow(2L, now.minusMinutes(1))));
+
+        StepVerifier.create(searchResultService.streamUserSearchHistory(1L, null))
+                .expectNextMatches(dto -> dto.getId() == 5L)
+                .expectNextMatches(dto -> dto.getId() == 4L)
+                .expectNextMatches(dto -> dto.getId() == 3L)
+                .expectNextMatches(dto -> dto.getId() == 2L)
+                .verifyComplete();
+    }
+
+    @Test
+    void streamUserSearchHistory_shouldFetchAtMostOnePageAhead() {
+        LocalDateTime now = LocalDateTime.of(2024, 5, 1, 12, 0);
+        List<SearchResultSummaryDto> fullPage = List.of(historyRow(5L, now), historyRow(4L, now), historyRow(3L, now));
+        when(searchResultRepository.findHistoryPage(1L, null, null, Limit.of(3))).thenReturn(fullPage);
+        when(searchResultRepository.findHistoryPageAfter(eq(1L), isNull(), isNull(), any(), anyLong(), any())).thenReturn(fullPage);
+
+        StepVerifier.create(searchResultService.streamUserSearchHistory(1L, null), 0)
+                .thenRequest(1)
+                .expectNextCount(1)
+                .then(() -> verify(searchResultRepository, after(200).atMost(1))
+                        .findHistoryPageAfter(eq(1L), isNull(), isNull(), any(), anyLong(), any()))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void saveSearchResult_shouldMakeResultSearchable() {
+        testResponse.setItems(List.of(new GisItem("1", "Кофейня Север", "Тверская улица, 10")));
+        when(userRepository.getReferenceById(1L)).thenReturn(testUser);
+        when(searchResultRepository.saveAndFlush(any(SearchResultEntity.class))).thenReturn(testEntity);
+
+        StepVerifier.create(searchResultService.searchUserHistory(1L, null, "тверская", null, null))
+                .assertNext(result -> assertThat(result.getTotal()).isZero())
+                .verifyComplete();
+        searchResultService.saveSearchResult(1L, "Москва", "кафе", testResponse).block();
+
+        StepVerifier.create(searchResultService.searchUserHistory(1L, null, "тверская", null, null))
+                .assertNext(result -> {
+                    assertThat(result.getTotal()).isEqualTo(1);
+                    assertThat(result.getItems()).extracting(SearchResultSummaryDto::getId).containsExactly(100L);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void searchUserHistory_coldUser_shouldLoadHistoryFromDatabaseOnce() throws Exception {
+        GisSearchResponse stored = new GisSearchResponse();
+        stored.setItems(List.of(new GisItem("1", "Пекарня", "Невский проспект, 1")));
+        SearchResultEntity row = new SearchResultEntity(testUser, "Санкт-Петербург", "хлеб", null, 1);
+        row.setResultsJson(objectMapper.writeValueAsString(stored));
+        row.setId(7L);
+        when(searchResultRepository.findIndexBatch(1L, Long.MAX_VALUE, Limit.of(500))).thenReturn(List.of(row));
+
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(searchResultService.searchUserHistory(1L, null, "невский", null, null))
+                    .assertNext(result -> {
+                        assertThat(result.getItems()).extracting(SearchResultSummaryDto::getId).containsExactly(7L);
+                        assertThat(result.isTruncated()).isFalse();
+                    })
+                    .verifyComplete();
+        }
+
+        verify(searchResultRepository, times(1)).findIndexBatch(anyLong(), anyLong(), any());
     }
 
     @Test
     void getSearchResultById_shouldReturnDto() {
         when(searchResultRepository.findByIdWithUser(100L)).thenReturn(Optional.of(testEntity));
 
-        StepVerifier.create(searchResultService.getSearchResultById(100L))
+        StepVerifier.create(searchResultService.getSearchResultById(1L, 100L))
                 .expectNextMatches(dto -> dto.getId().equals(100L) &&
                         dto.getUserId().equals(1L) &&
                         dto.getUserName().equals("John Doe"))
@@ -110,15 +289,198 @@ public class SearchResultServiceTest {
         verify(searchResultRepository, times(1)).findByIdWithUser(100L);
     }
 
+    @Test
+    void getSearchResultById_legacyJsonRow_shouldMigrateToPayload() throws Exception {
+        GisSearchResponse stored = new GisSearchResponse();
+        stored.setItems(List.of(new GisItem("1", "Кофейня", "Тверская улица, 10")));
+        SearchResultEntity legacy = new SearchResultEntity(testUser, "Москва", "кафе", null, 1);
+        legacy.setResultsJson(objectMapper.writeValueAsString(stored));
+        legacy.setId(5L);
+        when(searchResultRepository.findByIdWithUser(5L)).thenReturn(Optional.of(legacy));
+
+        StepVerifier.create(searchResultService.getSearchResultById(1L, 5L))
+                .assertNext(dto -> assertThat(dto.getResults().getItems())
+                        .extracting(GisItem::getName)
+                        .containsExactly("Кофейня"))
+                .verifyComplete();
+
+        assertThat(legacy.getResultsJson()).isNull();
+        assertThat(payloadCodec.decode(legacy.getResultsPayload()).getItems())
+                .extracting(GisItem::getAddress)
+                .containsExactly("Тверская улица, 10");
+        verify(searchResultRepository, times(1)).save(legacy);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void getSearchResultById_unparseableLegacyRow_shouldKeepStoredJson() {
+        SearchResultEntity legacy = new SearchResultEntity(testUser, "Москва", "кафе", null, 1);
+        legacy.setResultsJson("{\"items\": [");
+        legacy.setId(6L);
+        when(searchResultRepository.findByIdWithUser(6L)).thenReturn(Optional.of(legacy));
+
+        StepVerifier.create(searchResultService.getSearchResultById(1L, 6L))
+                .assertNext(dto -> assertThat(dto.getResults().getItems()).isEmpty())
+                .verifyComplete();
+
+        assertThat(legacy.getResultsJson()).isEqualTo("{\"items\": [");
+        assertThat(legacy.getResultsPayload()).isNull();
+        verify(searchResultRepository, never()).save(any());
+        verifyNoInteractions(transactionManager, itemStore);
+        verify(asyncLogger).error(any(Supplier.class), any(IllegalArgumentException.class));
+    }
+
+    @Test
+    void saveSearchResult_normalized_shouldLinkItemsInsteadOfPayload() {
+        SearchResultService normalized = new SearchResultService(
+                searchResultRepository, userRepository, payloadCodec, searchIndex, itemStore,
+                new TransactionTemplate(transactionManager), blockingScheduler,
+                new PipelineMetrics(new SimpleMeterRegistry()), asyncLogger, true, 2, 100, 2);
+        List<GisItem> items = List.of(new GisItem("1", "Кофейня", "Тверская улица, 10"));
+        testResponse.setItems(items);
+        when(userRepository.getReferenceById(1L)).thenReturn(testUser);
+        when(searchResultRepository.saveAndFlush(any(SearchResultEntity.class))).thenAnswer(invocation -> {
+            SearchResultEntity entity = invocation.getArgument(0);
+            entity.setId(100L);
+            return entity;
+        });
+
+        StepVerifier.create(normalized.saveSearchResult(1L, "Москва", "кафе", testResponse))
+                .expectNextMatches(entity -> entity.getResultsPayload() == null && entity.getResultsJson() == null)
+                .verifyComplete();
+
+        verify(itemStore, times(1)).storeAll(Map.of(100L, items));
+    }
+
+    @Test
+    void getSearchResultById_normalizedRow_shouldLoadLinkedItems() {
+        SearchResultEntity row = new SearchResultEntity(testUser, "Москва", "кафе", null, 1);
+        row.setId(8L);
+        when(searchResultRepository.findByIdWithUser(8L)).thenReturn(Optional.of(row));
+        when(itemStore.load(8L)).thenReturn(List.of(new GisItem("1", "Кофейня", "Тверская улица, 10")));
+
+        StepVerifier.create(searchResultService.getSearchResultById(1L, 8L))
+                .assertNext(dto -> assertThat(dto.getResults().getItems())
+                        .extracting(GisItem::getName)
+                        .containsExactly("Кофейня"))
+                .verifyComplete();
+
+        verify(searchResultRepository, never()).save(any(SearchResultEntity.class));
+    }
+
     @Test
     void getSearchResultById_notFound_shouldThrow() {
         when(searchResultRepository.findByIdWithUser(999L)).thenReturn(Optional.empty());
 
-        StepVerifier.create(searchResultService.getSearchResultById(999L))
-                .expectErrorMatches(throwable -> throwable instanceof RuntimeException &&
+        StepVerifier.create(searchResultService.getSearchResultById(1L, 999L))
+                .expectErrorMatches(throwable -> throwable instanceof SearchResultNotFoundException &&
                         throwable.getMessage().contains("Search result not found"))
                 .verify();
 
         verify(searchResultRepository, times(1)).findByIdWithUser(999L);
     }
+
+    @Test
+    void getSearchResultById_otherUsersResult_shouldLookMissing() {
+        when(searchResultRepository.findByIdWithUser(100L)).thenReturn(Optional.of(testEntity));
+
+        StepVerifier.create(searchResultService.getSearchResultById(2L, 100L))
+                .expectError(SearchResultNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void saveSearchResults_shouldSaveBatchWithoutUserLookups() throws Exception {
+        when(userRepository.getReferenceById(1L)).thenReturn(testUser);
+        when(searchResultRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<SearchResultEntity> saved = searchResultService.saveSearchResults(List.of(
+                new PendingSearchResult(1L, "Москва", "кафе", testResponse),
+                new PendingSearchResult(1L, "Казань", "кафе", testResponse)
+        ));
+
+        assertThat(saved)
+                .extracting(SearchResultEntity::getCity)
+                .containsExactly("Москва", "Казань");
+        verify(userRepository, never()).findAllById(any());
+        verify(searchResultRepository, times(1)).saveAllAndFlush(anyList());
+    }
+
+    @Test
+    void saveSearchResults_foreignKeyViolation_shouldSaveValidRowsOneByOne() throws Exception {
+        UserEntity unknownUser = new UserEntity();
+        unknownUser.setId(2L);
+        when(userRepository.getReferenceById(1L)).thenReturn(testUser);
+        when(userRepository.getReferenceById(2L)).thenReturn(unknownUser);
+        when(searchResultRepository.saveAllAndFlush(anyList())).thenThrow(new DataIntegrityViolationException("FK_USER"));
+        when(searchResultRepository.saveAndFlush(any(SearchResultEntity.class))).thenAnswer(invocation -> {
+            SearchResultEntity entity = invocation.getArgument(0);
+            if (entity.getUser() == unknownUser) {
+                throw new DataIntegrityViolationException("FK_USER");
+            }
+            return entity;
+        });
+
+        List<SearchResultEntity> saved = searchResultService.saveSearchResults(List.of(
+                new PendingSearchResult(1L, "Москва", "кафе", testResponse),
+                new PendingSearchResult(2L, "Москва", "бар", testResponse),
+                new PendingSearchResult(1L, "Казань", "кафе", testResponse)
+        ));
+
+        assertThat(saved)
+                .extracting(SearchResultEntity::getCity)
+                .containsExactly("Москва", "Казань");
+    }
+
+    @Test
+    void saveSearchResult_normalized_itemStoreFailure_shouldRollBackRow() {
+        SearchResultService normalized = normalizedService();
+        testResponse.setItems(List.of(new GisItem("1", "Кофейня", "Тверская улица, 10")));
+        when(userRepository.getReferenceById(1L)).thenReturn(testUser);
+        when(searchResultRepository.saveAndFlush(any(SearchResultEntity.class))).thenReturn(testEntity);
+        doThrow(new DataIntegrityViolationException("PK_GIS_ITEMS")).when(itemStore).storeAll(any());
+
+        StepVerifier.create(normalized.saveSearchResult(1L, "Москва", "кафе", testResponse))
+                .expectError(DataIntegrityViolationException.class)
+                .verify();
+
+        verify(itemStore, times(2)).storeAll(any());
+        verify(transactionManager, times(2)).rollback(any());
+        verify(transactionManager, never()).commit(any());
+        assertThat(searchIndex.size()).isZero();
+    }
+
+    @Test
+    void saveSearchResults_itemStoreFailure_shouldRollBackBatchWithoutRowByRowRetry() {
+        SearchResultService normalized = normalizedService();
+        testResponse.setItems(List.of(new GisItem("1", "Кофейня", "Тверская улица, 10")));
+        when(userRepository.getReferenceById(1L)).thenReturn(testUser);
+        when(searchResultRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> {
+            List<SearchResultEntity> entities = invocation.getArgument(0);
+            for (int i = 0; i < entities.size(); i++) {
+                entities.get(i).setId(100L + i);
+            }
+            return entities;
+        });
+        doThrow(new DataIntegrityViolationException("FK_SEARCH_RESULT")).when(itemStore).storeAll(any());
+
+        List<PendingSearchResult> batch = List.of(
+                new PendingSearchResult(1L, "Москва", "кафе", testResponse),
+                new PendingSearchResult(1L, "Казань", "кафе", testResponse)
+        );
+
+        assertThatThrownBy(() -> normalized.saveSearchResults(batch))
+                .isInstanceOf(DataIntegrityViolationException.class);
+
+        verify(searchResultRepository, never()).saveAndFlush(any(SearchResultEntity.class));
+        verify(transactionManager, never()).commit(any());
+        assertThat(searchIndex.size()).isZero();
+    }
+
+    private SearchResultService normalizedService() {
+        return new SearchResultService(
+                searchResultRepository, userRepository, payloadCodec, searchIndex, itemStore,
+                new TransactionTemplate(transactionManager), blockingScheduler,
+                new PipelineMetrics(new SimpleMeterRegistry()), asyncLogger, true, 2, 100, 2);
+    }
 }
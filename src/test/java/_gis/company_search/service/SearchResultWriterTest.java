@@ -0,0 +1,110 @@
+package _gis.company_search.service;
+
+import _gis.company_search.config.BlockingScheduler;
+import _gis.company_search.dto.GisSearchResponse;
+import _gis.company_search.dto.PendingSearchResult;
+import _gis.company_search.entity.SearchResultEntity;
+import _gis.company_search.logging.AsyncLogger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class SearchResultWriterTest {
+    private SearchResultService searchResultService;
+    private AsyncLogger asyncLogger;
+    private List<Integer> batchSizes;
+
+    private BlockingScheduler blockingScheduler;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        blockingScheduler = new BlockingScheduler(true, 2, 100);
+        searchResultService = mock(SearchResultService.class);
+        asyncLogger = mock(AsyncLogger.class);
+        batchSizes = Collections.synchronizedList(new ArrayList<>());
+
+        when(searchResultService.saveSearchResults(anyList())).thenAnswer(invocation -> {
+            List<PendingSearchResult> batch = invocation.getArgument(0);
+            batchSizes.add(batch.size());
+            return batch.stream().map(pending -> new SearchResultEntity()).toList();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        blockingScheduler.close();
+    }
+
+    @Test
+    void enqueue_FlushesInBatchesOfConfiguredSize() throws Exception {
+        SearchResultWriter writer = new SearchResultWriter(searchResultService, asyncLogger, blockingScheduler,
+                true, 100, 2, Duration.ofSeconds(1), Duration.ofSeconds(1));
+
+        for (int i = 0; i < 4; i++) {
+            StepVerifier.create(writer.enqueue(1L, "Москва", "кафе " + i, new GisSearchResponse()))
+                    .verifyComplete();
+        }
+        writer.close();
+
+        assertThat(batchSizes).containsOnly(2);
+        assertThat(writer.getStats().getWritten()).isEqualTo(4);
+        assertThat(writer.getStats().getQueued()).isZero();
+    }
+
+    @Test
+    void close_FlushesPendingRowsBeforeShutdown() throws Exception {
+        SearchResultWriter writer = new SearchResultWriter(searchResultService, asyncLogger, blockingScheduler,
+                true, 100, 50, Duration.ofMinutes(1), Duration.ofSeconds(1));
+
+        for (int i = 0; i < 3; i++) {
+            writer.enqueue(1L, "Москва", "кафе " + i, new GisSearchResponse()).block();
+        }
+        writer.close();
+
+        assertThat(batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(3);
+        assertThat(writer.getStats().getWritten()).isEqualTo(3);
+    }
+
+    @Test
+    void enqueue_AfterClose_WritesInline() throws Exception {
+        SearchResultWriter writer = new SearchResultWriter(searchResultService, asyncLogger, blockingScheduler,
+                true, 1, 50, Duration.ofMillis(50), Duration.ofMillis(10));
+        writer.close();
+
+        StepVerifier.create(writer.enqueue(1L, "Москва", "кафе", new GisSearchResponse()))
+                .verifyComplete();
+
+        assertThat(writer.getStats().getInlineWrites()).isEqualTo(1);
+        verify(searchResultService, times(1)).saveSearchResults(anyList());
+    }
+
+    @Test
+    void enqueue_FlushesBatchesOnBlockingScheduler() throws Exception {
+        List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        when(searchResultService.saveSearchResults(anyList())).thenAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            List<PendingSearchResult> batch = invocation.getArgument(0);
+            return batch.stream().map(pending -> new SearchResultEntity()).toList();
+        });
+        SearchResultWriter writer = new SearchResultWriter(searchResultService, asyncLogger, blockingScheduler,
+                true, 100, 2, Duration.ofSeconds(1), Duration.ofSeconds(1));
+
+        for (int i = 0; i < 2; i++) {
+            writer.enqueue(1L, "Москва", "кафе " + i, new GisSearchResponse()).block();
+        }
+        writer.close();
+
+        assertThat(threads).isNotEmpty().allMatch(name -> name.startsWith("search-blocking-"));
+        assertThat(writer.getStats().getWritten()).isEqualTo(2);
+    }
+}
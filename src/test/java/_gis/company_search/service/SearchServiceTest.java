@@ -1,11 +1,17 @@
 package _gis.company_search.service;
 
+import _gis.company_search.config.BlockingScheduler;
+import _gis.company_search.dto.BatchSearchRequest;
 import _gis.company_search.dto.GisItem;
 import _gis.company_search.dto.GisSearchResponse;
+import _gis.company_search.dto.PendingSearchResult;
+import _gis.company_search.dto.SearchRequest;
 import _gis.company_search.entity.SearchResultEntity;
 import _gis.company_search.exception.DoubleGisApiException;
+import _gis.company_search.exception.InvalidBatchSearchException;
 import _gis.company_search.logging.AsyncLogger;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
@@ -13,6 +19,7 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -20,9 +27,9 @@ import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.io.IOException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
@@ -35,7 +42,8 @@ class SearchServiceTest {
     private SearchService searchService;
     private WebClient webClient;
     private ObjectMapper objectMapper;
-    private ExecutorService executorService;
+    private BlockingScheduler blockingScheduler;
+    private SimpleMeterRegistry meterRegistry;
 
     @Mock
     private AsyncLogger asyncLogger;
@@ -43,13 +51,18 @@ class SearchServiceTest {
     @Mock
     private SearchResultService searchResultService;
 
+    @Mock
+    private SearchResultWriter searchResultWriter;
+
     @BeforeEach
     void setUp() throws IOException {
         mockWebServer = new MockWebServer();
         mockWebServer.start();
 
         objectMapper = new ObjectMapper();
-        executorService = Executors.newFixedThreadPool(2);
+        blockingScheduler = new BlockingScheduler(true, 2, 100);
+        meterRegistry = new SimpleMeterRegistry();
+        PipelineMetrics metrics = new PipelineMetrics(meterRegistry);
         webClient = WebClient.builder().build();
 
         String baseUrl = mockWebServer.url("/").toString().replaceAll("/$", "");
@@ -58,18 +71,61 @@ class SearchServiceTest {
                 "test-api-key",
                 baseUrl,
                 webClient,
-                executorService,
-                objectMapper,
+                new GisResponseParser(objectMapper, asyncLogger, metrics, true),
                 asyncLogger,
-                searchResultService
+                searchResultService,
+                new SearchCache(true, Duration.ofMinutes(5), 100, Duration.ZERO),
+                searchResultWriter,
+                new GisRequestLimiter(true, 1000, 100, 10, 1, 64,
+                        Duration.ofSeconds(1), 100, Duration.ofSeconds(5)),
+                new UpstreamCallPolicy(Duration.ofSeconds(10), 1, Duration.ofMillis(10), Duration.ofMillis(100),
+                        0.5, 0.2, 10, false, Duration.ofMillis(50)),
+                new GisCircuitBreaker(true, 20, 10, 50, Duration.ofSeconds(30), 3, asyncLogger),
+                blockingScheduler,
+                metrics,
+                true,
+                4,
+                10
         );
     }
 
+    private static Supplier<String> messageContains(String text) {
+        return argThat(message -> message.get().contains(text));
+    }
+
     @AfterEach
-    void tearDown() throws IOException, InterruptedException {
+    void tearDown() throws IOException {
         mockWebServer.shutdown();
-        executorService.shutdown();
-        executorService.awaitTermination(5, TimeUnit.SECONDS);
+        blockingScheduler.close();
+    }
+
+    @Test
+    void search_RecordsStageMetrics() {
+        mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .setBody("{\"result\": {\"items\": [{\"id\": \"1\", \"name\": \"Кафе\", \"address_name\": \"Тверская, 1\"}]}}")
+                .addHeader("Content-Type", "application/json"));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(404));
+        when(searchResultService.saveSearchResult(anyLong(), anyString(), anyString(), any()))
+                .thenReturn(Mono.just(new SearchResultEntity()));
+
+        StepVerifier.create(searchService.search(1L, "Москва", "кафе"))
+                .expectNextCount(1)
+                .verifyComplete();
+        StepVerifier.create(searchService.search(1L, "Москва", "бар"))
+                .expectError(DoubleGisApiException.class)
+                .verify();
+
+        assertThat(meterRegistry.get(PipelineMetrics.URL_BUILD).timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get(PipelineMetrics.UPSTREAM).tags("status", "200", "outcome", "success")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(PipelineMetrics.UPSTREAM).tags("status", "404", "outcome", "error")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(PipelineMetrics.BODY_SIZE).summary().totalAmount()).isPositive();
+        assertThat(meterRegistry.get(PipelineMetrics.PARSE).tag("mode", "streaming").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(PipelineMetrics.SEARCH).tag("outcome", "success").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(PipelineMetrics.SEARCH).tags("outcome", "error", "exception", "DoubleGisApiException")
+                .timer().count()).isEqualTo(1);
     }
 
     @Test
@@ -180,14 +236,15 @@ class SearchServiceTest {
                 .verify();
 
         verify(searchResultService, never()).saveSearchResult(anyLong(), anyString(), anyString(), any());
-        verify(asyncLogger, atLeastOnce()).error(contains("HTTP ошибка"), eq(null));
+        verify(asyncLogger, atLeastOnce()).error(messageContains("HTTP ошибка"), eq(null));
     }
 
     @Test
-    void search_ApiReturns500_ThrowsDoubleGisApiException() {
+    void search_ApiReturns500_NothingStored_ThrowsDoubleGisApiException() {
         mockWebServer.enqueue(new MockResponse()
                 .setResponseCode(500)
                 .setBody("Internal Server Error"));
+        when(searchResultService.findLatestResponse("Москва", "кафе")).thenReturn(Mono.empty());
 
         StepVerifier.create(searchService.search(1L, "Москва", "кафе"))
                 .expectError(DoubleGisApiException.class)
@@ -402,13 +459,12 @@ class SearchServiceTest {
                 .expectNextCount(1)
                 .verifyComplete();
 
-        verify(asyncLogger, atLeastOnce()).info(contains("Начало поиска"));
-        verify(asyncLogger, atLeastOnce()).info(contains("Сформирован URL запроса"));
-        verify(asyncLogger, atLeastOnce()).info(contains("Длина тела ответа"));
-        verify(asyncLogger, atLeastOnce()).info(contains("Тело ответа"));
-        verify(asyncLogger, atLeastOnce()).info(contains("Парсинг завершен успешно"));
-        verify(asyncLogger, atLeastOnce()).info(contains("Сохранение результатов поиска"));
-        verify(asyncLogger, atLeastOnce()).info(contains("Результаты успешно сохранены"));
+        verify(asyncLogger, atLeastOnce()).info(contains("Начало поиска"), any(), any());
+        verify(asyncLogger, atLeastOnce()).info(contains("Сформирован URL запроса"), any());
+        verify(asyncLogger, atLeastOnce()).info(contains("Длина тела ответа"), any());
+        verify(asyncLogger, atLeastOnce()).info(contains("Парсинг завершен успешно"), any());
+        verify(asyncLogger, atLeastOnce()).info(contains("Сохранение результатов поиска"), any());
+        verify(asyncLogger, atLeastOnce()).info(contains("Результаты успешно сохранены"), any());
     }
 
     @Test
@@ -545,6 +601,172 @@ class SearchServiceTest {
                 .verify();
 
         verify(asyncLogger, atLeastOnce()).error(contains("Ошибка сохранения результатов в БД"), any());
-        verify(asyncLogger, atLeastOnce()).error(contains("Ошибка выполнения поиска"), any());
+        verify(asyncLogger, atLeastOnce()).error(messageContains("Ошибка выполнения поиска"), any());
+    }
+
+    @Test
+    void search_ApiUnavailable_ServesLatestStoredResultAsStale() {
+        mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(503)
+                .setBody("Service Unavailable"));
+        GisSearchResponse stored = new GisSearchResponse(List.of(new GisItem("123", "Кафе", "ул. Тестовая, 1")));
+        when(searchResultService.findLatestResponse("Москва", "кафе")).thenReturn(Mono.just(stored.asStale()));
+
+        StepVerifier.create(searchService.search(1L, "Москва", "кафе"))
+                .assertNext(response -> {
+                    assertThat(response.isStale()).isTrue();
+                    assertThat(response.getItems()).extracting(GisItem::getId).containsExactly("123");
+                })
+                .verifyComplete();
+
+        verify(searchResultService, never()).saveSearchResult(anyLong(), anyString(), anyString(), any());
+    }
+
+    @Test
+    void search_RepeatedQuery_ServedFromCache() {
+        String mockResponse = """
+                {
+                    "result": {
+                        "items": [
+                            {
+                                "id": "123",
+                                "name": "Тестовое кафе",
+                                "address_name": "ул. Тестовая, 1"
+                            }
+                        ]
+                    }
+                }
+                """;
+
+        mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .setBody(mockResponse)
+                .addHeader("Content-Type", "application/json"));
+
+        SearchResultEntity mockEntity = new SearchResultEntity();
+        mockEntity.setId(1L);
+        when(searchResultService.saveSearchResult(anyLong(), anyString(), anyString(), any()))
+                .thenReturn(Mono.just(mockEntity));
+
+        StepVerifier.create(searchService.search(1L, "Москва", "кафе"))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        StepVerifier.create(searchService.search(2L, " москва ", "Кафе"))
+                .assertNext(response -> assertThat(response.getItems()).hasSize(1))
+                .verifyComplete();
+
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(1);
+        verify(searchResultService, times(2)).saveSearchResult(anyLong(), anyString(), anyString(), any());
+    }
+
+    @Test
+    void search_WriteBehindEnabled_EnqueuesInsteadOfSaving() {
+        String mockResponse = """
+                {
+                    "result": {
+                        "items": [
+                            {
+                                "id": "123",
+                                "name": "Тестовое кафе",
+                                "address_name": "ул. Тестовая, 1"
+                            }
+                        ]
+                    }
+                }
+                """;
+
+        mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .setBody(mockResponse)
+                .addHeader("Content-Type", "application/json"));
+
+        when(searchResultWriter.isEnabled()).thenReturn(true);
+        when(searchResultWriter.enqueue(anyLong(), anyString(), anyString(), any()))
+                .thenReturn(Mono.empty());
+
+        StepVerifier.create(searchService.search(1L, "Москва", "кафе"))
+                .assertNext(response -> assertThat(response.getItems()).hasSize(1))
+                .verifyComplete();
+
+        verify(searchResultWriter).enqueue(eq(1L), eq("Москва"), eq("кафе"), any(GisSearchResponse.class));
+        verify(searchResultService, never()).saveSearchResult(anyLong(), anyString(), anyString(), any());
+    }
+
+    private static String pageBody(String... ids) {
+        StringBuilder items = new StringBuilder();
+        for (String id : ids) {
+            if (items.length() > 0) {
+                items.append(',');
+            }
+            items.append("{\"id\": \"").append(id).append("\", \"name\": \"Место ").append(id)
+                    .append("\", \"address_name\": \"Адрес ").append(id).append("\"}");
+        }
+        return "{\"result\": {\"items\": [" + items + "]}}";
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void searchBatch_FansOutPages_DedupesItems_AndSavesOneResultPerQuery() throws Exception {
+        mockWebServer.setDispatcher(new okhttp3.mockwebserver.Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String q = request.getRequestUrl().queryParameter("q");
+                String page = request.getRequestUrl().queryParameter("page");
+                if (q.contains("бар")) {
+                    return new MockResponse().setResponseCode(500);
+                }
+                String body = "1".equals(page) ? pageBody("1", "2") : pageBody("2", "3");
+                return new MockResponse().setResponseCode(200).setBody(body)
+                        .addHeader("Content-Type", "application/json");
+            }
+        });
+        when(searchResultService.saveSearchResults(anyList()))
+                .thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).stream()
+                        .map(pending -> new SearchResultEntity()).toList());
+
+        BatchSearchRequest request = new BatchSearchRequest();
+        request.setQueries(List.of(query("Москва", "кафе"), query("Казань", "кафе"), query("Москва", "бар")));
+        request.setFirstPage(1);
+        request.setLastPage(2);
+        request.setPageSize(2);
+
+        StepVerifier.create(searchService.searchBatch(1L, request))
+                .assertNext(response -> {
+                    assertThat(response.getItems()).extracting(GisItem::getId).containsExactly("1", "2", "3");
+                    assertThat(response.getPagesFetched()).isEqualTo(4);
+                    assertThat(response.getPagesFailed()).isEqualTo(2);
+                    assertThat(response.getResultsSaved()).isEqualTo(2);
+                })
+                .verifyComplete();
+
+        ArgumentCaptor<List<PendingSearchResult>> saved = ArgumentCaptor.forClass(List.class);
+        verify(searchResultService, times(1)).saveSearchResults(saved.capture());
+        assertThat(saved.getValue()).extracting(PendingSearchResult::getCity).containsExactly("Москва", "Казань");
+        assertThat(saved.getValue().get(0).getResponse().getItems())
+                .extracting(GisItem::getId)
+                .containsExactly("1", "2", "3");
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(6);
+    }
+
+    @Test
+    void searchBatch_InvalidPageRange_FailsWithoutCallingApi() {
+        BatchSearchRequest request = new BatchSearchRequest();
+        request.setQueries(List.of(query("Москва", "кафе")));
+        request.setFirstPage(3);
+        request.setLastPage(1);
+
+        StepVerifier.create(searchService.searchBatch(1L, request))
+                .expectError(InvalidBatchSearchException.class)
+                .verify();
+
+        assertThat(mockWebServer.getRequestCount()).isZero();
+    }
+
+    private static SearchRequest query(String city, String placeName) {
+        SearchRequest request = new SearchRequest();
+        request.setCity(city);
+        request.setPlaceName(placeName);
+        return request;
     }
-}
\ No newline at end of file
+}
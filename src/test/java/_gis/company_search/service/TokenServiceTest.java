@@ -0,0 +1,48 @@
+package _gis.company_search.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenServiceTest {
+    private static final Instant NOW = Instant.parse("2024-05-01T12:00:00Z");
+
+    private static TokenService tokenService(Instant now) {
+        return new TokenService("", "testKey", Duration.ofHours(1), Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    @Test
+    void verify_IssuedToken_ReturnsUserId() {
+        TokenService tokens = tokenService(NOW);
+
+        assertThat(tokens.verify(tokens.issue(42L))).isEqualTo(42L);
+    }
+
+    @Test
+    void verify_ExpiredToken_ReturnsNull() {
+        String token = tokenService(NOW).issue(42L);
+
+        assertThat(tokenService(NOW.plus(Duration.ofMinutes(59))).verify(token)).isEqualTo(42L);
+        assertThat(tokenService(NOW.plus(Duration.ofHours(1))).verify(token)).isNull();
+    }
+
+    @Test
+    void verify_TamperedOrForeignToken_ReturnsNull() {
+        TokenService tokens = tokenService(NOW);
+        String token = tokens.issue(42L);
+        String otherPayload = tokens.issue(43L).split("\\.")[0];
+        TokenService otherKey = new TokenService("other-secret", "testKey", Duration.ofHours(1),
+                Clock.fixed(NOW, ZoneOffset.UTC));
+
+        assertThat(tokens.verify(otherPayload + "." + token.split("\\.")[1])).isNull();
+        assertThat(tokens.verify(otherKey.issue(42L))).isNull();
+        assertThat(tokens.verify(token + ".x")).isNull();
+        assertThat(tokens.verify("not a token")).isNull();
+        assertThat(tokens.verify(null)).isNull();
+    }
+}
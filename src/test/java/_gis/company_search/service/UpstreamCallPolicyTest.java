@@ -0,0 +1,102 @@
+package _gis.company_search.service;
+
+import _gis.company_search.exception.DoubleGisApiException;
+import _gis.company_search.exception.ResponseParseException;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UpstreamCallPolicyTest {
+
+    private static UpstreamCallPolicy policy(Duration deadline, int attempts, int budgetBurst, boolean hedge) {
+        return new UpstreamCallPolicy(deadline, attempts, Duration.ofMillis(5), Duration.ofMillis(20),
+                0.5, 0.2, budgetBurst, hedge, Duration.ofMillis(5));
+    }
+
+    @Test
+    void execute_TransientServerError_IsRetried() {
+        UpstreamCallPolicy policy = policy(Duration.ofSeconds(5), 3, 10, false);
+        AtomicInteger attempts = new AtomicInteger();
+
+        StepVerifier.create(policy.execute(() -> attempts.incrementAndGet() < 3
+                        ? Mono.error(new DoubleGisApiException(502))
+                        : Mono.just("ok")))
+                .expectNext("ok")
+                .verifyComplete();
+
+        assertThat(attempts).hasValue(3);
+        assertThat(policy.getStats().getRetries()).isEqualTo(2);
+    }
+
+    @Test
+    void execute_ClientErrorOrParseFailure_IsNotRetried() {
+        UpstreamCallPolicy policy = policy(Duration.ofSeconds(5), 3, 10, false);
+        AtomicInteger attempts = new AtomicInteger();
+
+        StepVerifier.create(policy.execute(() -> {
+                    attempts.incrementAndGet();
+                    return Mono.error(new DoubleGisApiException(404));
+                }))
+                .expectError(DoubleGisApiException.class)
+                .verify();
+        StepVerifier.create(policy.execute(() -> {
+                    attempts.incrementAndGet();
+                    return Mono.error(new ResponseParseException(new RuntimeException()));
+                }))
+                .expectError(ResponseParseException.class)
+                .verify();
+
+        assertThat(attempts).hasValue(2);
+    }
+
+    @Test
+    void execute_EmptyBudget_StopsRetrying() {
+        UpstreamCallPolicy policy = policy(Duration.ofSeconds(5), 5, 1, false);
+        AtomicInteger attempts = new AtomicInteger();
+
+        StepVerifier.create(policy.execute(() -> {
+                    attempts.incrementAndGet();
+                    return Mono.error(new DoubleGisApiException(503));
+                }))
+                .expectErrorMatches(error -> error instanceof DoubleGisApiException api && api.getStatus() == 503)
+                .verify();
+
+        assertThat(attempts).hasValue(2);
+        assertThat(policy.getStats().getRetriesDenied()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_SlowUpstream_FailsAtDeadline() {
+        UpstreamCallPolicy policy = policy(Duration.ofMillis(100), 3, 10, false);
+
+        StepVerifier.create(policy.execute(Mono::never))
+                .expectErrorMatches(error -> error instanceof DoubleGisApiException api && api.getStatus() == 504)
+                .verify(Duration.ofSeconds(2));
+
+        assertThat(policy.getStats().getDeadlineExceeded()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_AttemptSlowerThanP95_IsHedged() {
+        UpstreamCallPolicy policy = policy(Duration.ofSeconds(5), 1, 10, true);
+        for (int i = 0; i < 30; i++) {
+            policy.execute(() -> Mono.just("warm-up")).block();
+        }
+
+        AtomicInteger attempts = new AtomicInteger();
+        StepVerifier.create(policy.execute(() -> attempts.incrementAndGet() == 1
+                        ? Mono.<String>never()
+                        : Mono.just("hedge")))
+                .expectNext("hedge")
+                .verifyComplete();
+
+        assertThat(attempts).hasValue(2);
+        assertThat(policy.getStats().getHedges()).isEqualTo(1);
+        assertThat(policy.getStats().getHedgeWins()).isEqualTo(1);
+    }
+}
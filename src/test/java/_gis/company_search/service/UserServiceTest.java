@@ -1,30 +1,49 @@
 package _gis.company_search.service;
 
+import _gis.company_search.config.BlockingScheduler;
 import _gis.company_search.entity.UserEntity;
 import _gis.company_search.exception.InvalidPasswordException;
 import _gis.company_search.exception.UserNotFoundException;
 import _gis.company_search.repository.UserRepository;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
 
-import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
 public class UserServiceTest {
     private HashService hashService;
     private UserRepository userRepository;
     private UserService userService;
+    private Scheduler authScheduler;
+    private BlockingScheduler blockingScheduler;
 
     @BeforeEach
     void setup() {
         hashService = mock(HashService.class);
         userRepository = mock(UserRepository.class);
-        userService = new UserService(hashService, userRepository);
+        authScheduler = Schedulers.newBoundedElastic(1, 10, "auth-test");
+        blockingScheduler = new BlockingScheduler(true, 2, 10);
+        userService = new UserService(hashService, userRepository,
+                new LoginCache(true, Duration.ofMinutes(10), 100), new PipelineMetrics(new SimpleMeterRegistry()),
+                blockingScheduler, authScheduler);
+    }
+
+    @AfterEach
+    void tearDown() {
+        authScheduler.dispose();
+        blockingScheduler.close();
     }
 
     @Test
@@ -43,11 +62,7 @@ public class UserServiceTest {
 
         StepVerifier.create(result)
                 .assertNext(savedUser -> {
-                    try {
-                        verify(hashService, times(1)).hashString("rawpass");
-                    } catch (NoSuchAlgorithmException e) {
-                        throw new RuntimeException(e);
-                    }
+                    verify(hashService, times(1)).hashString("rawpass");
                     verify(userRepository, times(1)).save(savedUser);
 
                     assert savedUser.getPassword().equals("hashedPass123");
@@ -64,8 +79,8 @@ public class UserServiceTest {
         when(userRepository.findByEmail("test@mail.com"))
                 .thenReturn(Optional.of(stored));
 
-        when(hashService.hashString("rawPass"))
-                .thenReturn("hashedPass123");
+        when(hashService.matches("rawPass", "hashedPass123"))
+                .thenReturn(true);
 
         Mono<UserEntity> result = userService.login("test@mail.com", "rawPass");
 
@@ -74,7 +89,68 @@ public class UserServiceTest {
                 .verifyComplete();
 
         verify(userRepository, times(1)).findByEmail("test@mail.com");
-        verify(hashService, times(1)).hashString("rawPass");
+        verify(hashService, times(1)).matches("rawPass", "hashedPass123");
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    void login_Repeated_ShouldSkipRepositoryLookup() {
+        UserEntity stored = new UserEntity("Test", "test@mail.com", "h1$hash");
+        stored.setId(7L);
+
+        when(userRepository.findByEmail("test@mail.com")).thenReturn(Optional.of(stored));
+        when(hashService.matches("rawPass", "h1$hash")).thenReturn(true);
+
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(userService.login("test@mail.com", "rawPass"))
+                    .assertNext(user -> assertThat(user.getId()).isEqualTo(7L))
+                    .verifyComplete();
+        }
+
+        verify(userRepository, times(1)).findByEmail("test@mail.com");
+        verify(hashService, times(3)).matches("rawPass", "h1$hash");
+    }
+
+    @Test
+    void login_ShouldUpgradeLegacyHash_WhenCredentialsCorrect() {
+        UserEntity stored = new UserEntity();
+        stored.setEmail("test@mail.com");
+        stored.setPassword("legacyHash");
+
+        when(userRepository.findByEmail("test@mail.com")).thenReturn(Optional.of(stored));
+        when(hashService.matches("rawPass", "legacyHash")).thenReturn(true);
+        when(hashService.needsRehash("legacyHash")).thenReturn(true);
+        when(hashService.hashString("rawPass")).thenReturn("h1$newHash");
+        when(userRepository.save(stored)).thenReturn(stored);
+
+        StepVerifier.create(userService.login("test@mail.com", "rawPass"))
+                .assertNext(user -> assertThat(user.getPassword()).isEqualTo("h1$newHash"))
+                .verifyComplete();
+
+        verify(userRepository, times(1)).save(stored);
+    }
+
+    @Test
+    void login_ShouldRunLookupOnBlockingSchedulerAndHashingOnAuthScheduler() throws Exception {
+        UserEntity stored = new UserEntity();
+        stored.setPassword("hashedPass123");
+        AtomicReference<String> lookupThread = new AtomicReference<>();
+        AtomicReference<String> hashThread = new AtomicReference<>();
+        when(userRepository.findByEmail("test@mail.com")).thenAnswer(invocation -> {
+            lookupThread.set(Thread.currentThread().getName());
+            return Optional.of(stored);
+        });
+        when(hashService.matches("rawPass", "hashedPass123")).thenAnswer(invocation -> {
+            hashThread.set(Thread.currentThread().getName());
+            return true;
+        });
+
+        StepVerifier.create(userService.login("test@mail.com", "rawPass"))
+                .expectNext(stored)
+                .verifyComplete();
+
+        assertThat(lookupThread.get()).startsWith("search-blocking-");
+        assertThat(hashThread.get()).startsWith("auth-test");
     }
 
     @Test
@@ -89,7 +165,7 @@ public class UserServiceTest {
                 .verify();
 
         verify(userRepository, times(1)).findByEmail("unknown@mail.com");
-        verify(hashService, never()).hashString(anyString());
+        verify(hashService, never()).matches(anyString(), anyString());
     }
 
     @Test
@@ -101,8 +177,8 @@ public class UserServiceTest {
         when(userRepository.findByEmail("test@mail.com"))
                 .thenReturn(Optional.of(stored));
 
-        when(hashService.hashString("wrongPass"))
-                .thenReturn("anotherHash");
+        when(hashService.matches("wrongPass", "correctHash"))
+                .thenReturn(false);
 
         Mono<UserEntity> result = userService.login("test@mail.com", "wrongPass");
 
@@ -111,7 +187,7 @@ public class UserServiceTest {
                 .verify();
 
         verify(userRepository, times(1)).findByEmail("test@mail.com");
-        verify(hashService, times(1)).hashString("wrongPass");
+        verify(hashService, times(1)).matches("wrongPass", "correctHash");
     }
 
     @Test
@@ -121,12 +197,12 @@ public class UserServiceTest {
         user.setPassword("123");
 
         when(hashService.hashString("123"))
-                .thenThrow(new NoSuchAlgorithmException());
+                .thenThrow(new IllegalStateException("Password hashing is not available"));
 
         Mono<UserEntity> result = userService.createUser(user);
 
         StepVerifier.create(result)
-                .expectError(NoSuchAlgorithmException.class)
+                .expectError(IllegalStateException.class)
                 .verify();
 
         verify(userRepository, never()).save(any());